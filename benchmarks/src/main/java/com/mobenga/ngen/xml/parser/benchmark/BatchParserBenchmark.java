@@ -0,0 +1,131 @@
+package com.mobenga.ngen.xml.parser.benchmark;
+
+import com.mobenga.ngen.xml.parser.BatchInput;
+import com.mobenga.ngen.xml.parser.BatchParser;
+import com.mobenga.ngen.xml.parser.BatchResult;
+import com.mobenga.ngen.xml.parser.CompiledMappings;
+import com.mobenga.ngen.xml.parser.XmlParser;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A batch of small documents, each waiting {@code latencyMicros} for its input as when read from a socket, parsed
+ * by a {@link BatchParser} on virtual threads against the same batch parser on a fixed pool of platform threads.
+ * The virtual thread benchmark requires Java 21 or later and fails its setup on earlier versions, rather than
+ * measuring the platform thread fallback of the batch parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class BatchParserBenchmark {
+
+    @Param({"10000"})
+    public int documents;
+
+    @Param({"0", "1000"})
+    public int latencyMicros;
+
+    @Param({"64", "1024"})
+    public int concurrency;
+
+    private final XmlParser xmlParser = new XmlParser();
+    private List<BatchInput<Event>> inputs;
+    private ExecutorService platformThreads;
+    private BatchParser platformThreadBatchParser;
+
+    /**
+     * Kept apart from the benchmark state, so the platform thread benchmark also runs where virtual threads are not
+     * available.
+     */
+    @State(Scope.Benchmark)
+    public static class VirtualThreads {
+        private BatchParser batchParser;
+
+        @Setup(Level.Trial)
+        public void setup(BatchParserBenchmark benchmark) {
+            batchParser = benchmark.xmlParser.batchParser().maxConcurrency(benchmark.concurrency).build();
+            if (!batchParser.isVirtualThreads()) {
+                batchParser.close();
+                throw new IllegalStateException("Virtual threads require Java 21 or later, running on Java " + System.getProperty("java.version"));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            batchParser.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        long latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        inputs = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            byte[] xml = ("<event id=\"" + i + "\" name=\"Event " + i + "\">"
+                    + "<market id=\"1\" name=\"Match Winner\"/><market id=\"2\" name=\"Total Goals\"/></event>")
+                    .getBytes(StandardCharsets.UTF_8);
+            inputs.add(BatchInput.of(() -> {
+                if (latencyNanos > 0) {
+                    LockSupport.parkNanos(latencyNanos);
+                }
+                return new ByteArrayInputStream(xml);
+            }, plan, Event.class));
+        }
+        platformThreads = Executors.newFixedThreadPool(concurrency);
+        platformThreadBatchParser = xmlParser.batchParser().maxConcurrency(concurrency).executor(platformThreads).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        platformThreadBatchParser.close();
+        platformThreads.shutdown();
+    }
+
+    @Benchmark
+    public int virtualThreads(VirtualThreads virtualThreads) {
+        return parse(virtualThreads.batchParser);
+    }
+
+    @Benchmark
+    public int platformThreadPool() {
+        return parse(platformThreadBatchParser);
+    }
+
+    private int parse(BatchParser batchParser) {
+        int parsed = 0;
+        Iterator<BatchResult<Event>> results = batchParser.parse(inputs);
+        while (results.hasNext()) {
+            if (results.next().isSuccess()) {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mobenga.ngen.xml.parser.benchmark;
+
+import com.mobenga.ngen.xml.parser.CompiledMappings;
+import com.mobenga.ngen.xml.parser.DocumentParser;
+import com.mobenga.ngen.xml.parser.XmlParser;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample3;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The StAX engines of {@link XmlParser} and its input sources, on the EventMapperExample3 mapping.
+ * Run with {@code -prof gc} to compare the allocation rate of the cursor and the event engine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class InputBenchmark {
+
+    @Param({"MEDIUM", "LARGE"})
+    public SportsFeed feed;
+
+    @Param
+    public XmlParser.Engine engine;
+
+    private XmlParser xmlParser;
+    private CompiledMappings plan;
+    private byte[] xml;
+    private ByteBuffer directBuffer;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        xmlParser = XmlParser.builder().engine(engine).build();
+        plan = CompiledMappings.compile(new EventMapperExample3());
+        xml = feed.xml(false);
+        directBuffer = ByteBuffer.allocateDirect(xml.length);
+        directBuffer.put(xml).flip();
+        file = Files.createTempFile("ngen-xml-parser-benchmark", ".xml");
+        Files.write(file, xml);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Event inputStream() throws XMLStreamException {
+        return xmlParser.parseXmlUnsafe(new ByteArrayInputStream(xml), new DocumentParser(plan), Event.class);
+    }
+
+    @Benchmark
+    public Event byteBuffer() throws XMLStreamException {
+        return xmlParser.parseXmlUnsafe(directBuffer, new DocumentParser(plan), Event.class);
+    }
+
+    @Benchmark
+    public Event mappedFile() throws XMLStreamException, IOException {
+        return xmlParser.parseXmlUnsafe(file, new DocumentParser(plan), Event.class);
+    }
+
+    @Benchmark
+    public Event fileInputStream() throws XMLStreamException, IOException {
+        try (InputStream xmlStream = Files.newInputStream(file)) {
+            return xmlParser.parseXmlUnsafe(xmlStream, new DocumentParser(plan), Event.class);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mobenga.ngen.xml.parser.benchmark;
+
+import com.mobenga.ngen.xml.parser.BranchContext;
+import com.mobenga.ngen.xml.parser.ClassSlotBranchContext;
+import com.mobenga.ngen.xml.parser.CompiledMappings;
+import com.mobenga.ngen.xml.parser.DocumentParser;
+import com.mobenga.ngen.xml.parser.ListBranchContext;
+import com.mobenga.ngen.xml.parser.Mappings;
+import com.mobenga.ngen.xml.parser.ProtectedClassMap;
+import com.mobenga.ngen.xml.parser.XmlParser;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample2;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample3;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample4;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample5;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link XmlParser#parseXmlUnsafe} over generated sports feeds, for each example mapping and object branch
+ * implementation. Run with {@code -prof gc} to get the allocation rate per operation. The sample time mode
+ * reports the latency percentiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class ParserBenchmark {
+
+    public enum Example {
+        EXAMPLE1(new EventMapperExample1(), false, false),
+        EXAMPLE2(new EventMapperExample2(), true, false),
+        EXAMPLE3(new EventMapperExample3(), false, false),
+        EXAMPLE4(new EventMapperExample4(), false, true),
+        EXAMPLE5(new EventMapperExample5(), false, false);
+
+        private final Mappings mappings;
+        private final boolean sportElement;
+        private final boolean updatesEvent;
+
+        Example(Mappings mappings, boolean sportElement, boolean updatesEvent) {
+            this.mappings = mappings;
+            this.sportElement = sportElement;
+            this.updatesEvent = updatesEvent;
+        }
+    }
+
+    public enum ObjectBranch {
+        PROTECTED_CLASS_MAP(plan -> new ProtectedClassMap()),
+        LIST(plan -> new ListBranchContext()),
+        CLASS_SLOTS(ClassSlotBranchContext::new);
+
+        private final Function<CompiledMappings, BranchContext> factory;
+
+        ObjectBranch(Function<CompiledMappings, BranchContext> factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param
+    public Example example;
+
+    @Param
+    public SportsFeed feed;
+
+    @Param
+    public ObjectBranch objectBranch;
+
+    private final XmlParser xmlParser = new XmlParser();
+    private CompiledMappings plan;
+    private byte[] xml;
+
+    @Setup
+    public void setup() {
+        plan = CompiledMappings.compile(example.mappings);
+        xml = feed.xml(example.sportElement);
+    }
+
+    @Benchmark
+    public Event parse() throws XMLStreamException {
+        BranchContext branch = objectBranch.factory.apply(plan);
+        if (example.updatesEvent) {
+            // EventMapperExample4 adds the selections to an existing event, so each operation needs a fresh one
+            branch.put(Event.class, feed.event());
+        }
+        return xmlParser.parseXmlUnsafe(new ByteArrayInputStream(xml), new DocumentParser(plan, branch), Event.class);
+    }
+}
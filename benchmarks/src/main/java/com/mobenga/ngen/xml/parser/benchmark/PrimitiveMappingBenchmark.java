@@ -0,0 +1,155 @@
+package com.mobenga.ngen.xml.parser.benchmark;
+
+import com.mobenga.ngen.xml.parser.AttributeMapping;
+import com.mobenga.ngen.xml.parser.BooleanAttributeMapping;
+import com.mobenga.ngen.xml.parser.CharSequenceElementTextMapping;
+import com.mobenga.ngen.xml.parser.CompiledMappings;
+import com.mobenga.ngen.xml.parser.DocumentParser;
+import com.mobenga.ngen.xml.parser.DoubleAttributeMapping;
+import com.mobenga.ngen.xml.parser.DoubleElementTextMapping;
+import com.mobenga.ngen.xml.parser.ElementParserSettings;
+import com.mobenga.ngen.xml.parser.ElementTextMapping;
+import com.mobenga.ngen.xml.parser.IntAttributeMapping;
+import com.mobenga.ngen.xml.parser.LongAttributeMapping;
+import com.mobenga.ngen.xml.parser.Mappings;
+import com.mobenga.ngen.xml.parser.XmlParser;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The boxed {@link AttributeMapping} and {@link ElementTextMapping} path against the primitive mappings, on a feed
+ * of odds where every selection carries an int, a long, two doubles and a boolean.
+ * Run with {@code -prof gc} to see the allocations of the boxed values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class PrimitiveMappingBenchmark {
+
+    public static class Odds {
+        private final List<Quote> quotes = new ArrayList<>();
+
+        public List<Quote> getQuotes() {
+            return quotes;
+        }
+    }
+
+    public static class Quote {
+        private int order;
+        private long updated;
+        private double decimalOdds;
+        private double fractionalOdds;
+        private boolean suspended;
+        private double price;
+
+        public void setOrder(int order) {
+            this.order = order;
+        }
+
+        public void setUpdated(long updated) {
+            this.updated = updated;
+        }
+
+        public void setDecimalOdds(double decimalOdds) {
+            this.decimalOdds = decimalOdds;
+        }
+
+        public void setFractionalOdds(double fractionalOdds) {
+            this.fractionalOdds = fractionalOdds;
+        }
+
+        public void setSuspended(boolean suspended) {
+            this.suspended = suspended;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+    }
+
+    private static final Mappings GENERIC = () -> mappings(
+            new AttributeMapping[]{
+                    new AttributeMapping<>(Quote.class, Quote::setOrder, MappingUtil::getInteger, "order"),
+                    new AttributeMapping<>(Quote.class, Quote::setUpdated, MappingUtil::getLong, "updated"),
+                    new AttributeMapping<>(Quote.class, Quote::setDecimalOdds, MappingUtil::getDouble, "odds_dec"),
+                    new AttributeMapping<>(Quote.class, Quote::setFractionalOdds, MappingUtil::getFractionalOdds, "odds_frac"),
+                    new AttributeMapping<>(Quote.class, Quote::setSuspended, MappingUtil::getBoolean, "suspended")},
+            new CharSequenceElementTextMapping<>(Quote.class, Quote::setPrice, MappingUtil::parseDouble));
+
+    private static final Mappings PRIMITIVE = () -> mappings(
+            new AttributeMapping[]{
+                    new IntAttributeMapping<>(Quote.class, Quote::setOrder, "order"),
+                    new LongAttributeMapping<>(Quote.class, Quote::setUpdated, "updated"),
+                    new DoubleAttributeMapping<>(Quote.class, Quote::setDecimalOdds, "odds_dec"),
+                    new DoubleAttributeMapping<>(Quote.class, Quote::setFractionalOdds, MappingUtil::parseFractionalOdds, "odds_frac"),
+                    new BooleanAttributeMapping<>(Quote.class, Quote::setSuspended, "suspended")},
+            new DoubleElementTextMapping<>(Quote.class, Quote::setPrice));
+
+    private static ElementParserSettings mappings(AttributeMapping[] attributeMappings, ElementTextMapping textMapping) {
+        ElementParserSettings odds = new ElementParserSettings("odds");
+        odds.setElementStartProcessor(objectBranch -> objectBranch.put(Odds.class, new Odds()));
+        ElementParserSettings quote = new ElementParserSettings("quote");
+        quote.setElementStartProcessor(objectBranch -> objectBranch.put(Quote.class, new Quote()));
+        quote.setElementEndProcessor(objectBranch ->
+                objectBranch.getInstance(Odds.class).getQuotes().add(objectBranch.pop(Quote.class)));
+        quote.setAttributeMappings(attributeMappings);
+        quote.setElementTextMappings(textMapping);
+        odds.setSubElementParsers(quote);
+        return odds;
+    }
+
+    @Param({"1000", "50000"})
+    public int quotes;
+
+    private final XmlParser xmlParser = new XmlParser();
+    private CompiledMappings generic;
+    private CompiledMappings primitive;
+    private byte[] xml;
+
+    @Setup
+    public void setup() {
+        generic = CompiledMappings.compile(GENERIC);
+        primitive = CompiledMappings.compile(PRIMITIVE);
+        StringBuilder builder = new StringBuilder(quotes * 130).append("<odds>\n");
+        for (int i = 1; i <= quotes; i++) {
+            int s = i % 20 + 1;
+            builder.append(" <quote order=\"").append(i)
+                    .append("\" updated=\"").append(1500000000000L + i)
+                    .append("\" odds_dec=\"").append(1 + s / (s + 1.0))
+                    .append("\" odds_frac=\"").append(s).append('/').append(s + 1)
+                    .append("\" suspended=\"").append(i % 7 == 0)
+                    .append("\">").append(s * 1.25).append("</quote>\n");
+        }
+        xml = builder.append("</odds>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Odds generic() throws XMLStreamException {
+        return xmlParser.parseXmlUnsafe(new ByteArrayInputStream(xml), new DocumentParser(generic), Odds.class);
+    }
+
+    @Benchmark
+    public Odds primitive() throws XMLStreamException {
+        return xmlParser.parseXmlUnsafe(new ByteArrayInputStream(xml), new DocumentParser(primitive), Odds.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mobenga.ngen.xml.parser.benchmark;
+
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generated sports feed documents in the format read by the {@code EventMapperExample} mappings:
+ * one event with markets, each market with selections carrying both price formats.
+ */
+public enum SportsFeed {
+    SMALL(10, 3),
+    MEDIUM(200, 5),
+    LARGE(5000, 10);
+
+    private final int markets;
+    private final int selections;
+
+    SportsFeed(int markets, int selections) {
+        this.markets = markets;
+        this.selections = selections;
+    }
+
+    /**
+     * @param sportElement true to wrap the event in a sport element, as read by EventMapperExample2
+     * @return the UTF-8 encoded document
+     */
+    public byte[] xml(boolean sportElement) {
+        StringBuilder xml = new StringBuilder(markets * selections * 120);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        if (sportElement) {
+            xml.append("<sport name=\"Football\">\n");
+        }
+        xml.append("<event id=\"1\" name=\"Home - Away\">\n Match Result\n");
+        for (int m = 1; m <= markets; m++) {
+            xml.append(" <market id=\"").append(m).append("\" name=\"Market ").append(m).append("\">\n");
+            for (int s = 1; s <= selections; s++) {
+                xml.append("  <selection id=\"").append(m * 100 + s).append("\" name=\"Selection ").append(s)
+                        .append("\" price=\"").append(s).append("/").append(s + 1).append("\">\n")
+                        .append("   <price odds_frac=\"").append(s).append("/").append(s + 1)
+                        .append("\" odds_dec=\"").append(1 + s / (s + 1.0)).append("\"/>\n")
+                        .append("  </selection>\n");
+            }
+            xml.append(" </market>\n");
+        }
+        xml.append("</event>\n");
+        if (sportElement) {
+            xml.append("</sport>\n");
+        }
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return an event with all markets of the feed but without selections, as updated by EventMapperExample4
+     */
+    public Event event() {
+        Event event = new Event();
+        event.setId("1");
+        for (int m = 1; m <= markets; m++) {
+            Market market = new Market();
+            market.setId(String.valueOf(m));
+            event.getMarkets().add(market);
+        }
+        return event;
+    }
+}
@@ -1,8 +1,12 @@
 package com.mobenga.ngen.xml.parser;
 
-import java.util.HashMap;
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -13,6 +17,9 @@ import java.util.function.Predicate;
  * to a Java object. The data transfer is described in two steps. In the first
  * step (the mapping) the data is transformed from a String to a Java type. In the second step
  * (setting the attribute) the data is injected into a Java object via a lambda function.
+ * <p>
+ * An Attribute Mapping is immutable and may be shared by several {@link DocumentParser}s running in parallel.
+ * The attribute values are provided per invocation by the parser.
  *
  * @param <T> Map the field to an object of this class
  * @param <K> Type of the value to be mapped
@@ -21,10 +28,11 @@ import java.util.function.Predicate;
 public class AttributeMapping<T, K> {
     private final Class<T> resultingFieldType;
     private final Predicate<Object> objectBranchExtractor;
-    private final Map<String, String> values;
-    private BiConsumer<T, K> setter;
-    private Function<Map<String, String>, K> mapper = null;
-    private BiFunction<Map<String, String>, BranchContext, K> biMapper = null;
+    private final List<String> keys;
+    private final List<QName> names;
+    private final BiConsumer<T, K> setter;
+    private final Function<Map<String, String>, K> mapper;
+    private final BiFunction<Map<String, String>, BranchContext, K> biMapper;
 
     /**
      * Constructs an Attribute Mapping for a single attribute
@@ -42,14 +50,7 @@ public class AttributeMapping<T, K> {
      *               To set values that does not depend on an attribute, use the Start or End Processor callback.
      */
     public AttributeMapping(Class<T> resultingFieldType, BiConsumer<T, K> setter, Function<Map<String, String>, K> mapper, String... fields) {
-        values = new HashMap<>(fields.length);
-        for (String field : fields) {
-            values.put(field, null);
-        }
-        this.setter = setter;
-        this.mapper = mapper;
-        this.resultingFieldType = resultingFieldType;
-        this.objectBranchExtractor = null;
+        this(resultingFieldType, null, setter, mapper, null, fields);
     }
 
     /**
@@ -68,19 +69,54 @@ public class AttributeMapping<T, K> {
      *               To set values that does not depend on an attribute, use the Start or End Processor callback.
      */
     public  AttributeMapping(Predicate<Object> objectBranchPredicate, BiConsumer<T, K> setter, Function<Map<String, String>, K> mapper, String... fields) {
-        values = new HashMap<>(fields.length);
-        for (String field : fields) {
-            values.put(field, null);
+        this(null, objectBranchPredicate, setter, mapper, null, fields);
+    }
+
+    AttributeMapping(Class<T> resultingFieldType, Predicate<Object> objectBranchPredicate, BiConsumer<T, K> setter,
+                     Function<Map<String, String>, K> mapper, BiFunction<Map<String, String>, BranchContext, K> biMapper, String... fields) {
+        if (null != mapper && null != biMapper) {
+            throw new IllegalStateException("Use either of the mappers");
         }
+        this.keys = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(Arrays.asList(fields))));
+        List<QName> qNames = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            qNames.add(QName.valueOf(key));
+        }
+        this.names = Collections.unmodifiableList(qNames);
         this.setter = setter;
         this.mapper = mapper;
-        this.resultingFieldType = null;
+        this.biMapper = biMapper;
+        this.resultingFieldType = resultingFieldType;
         this.objectBranchExtractor = objectBranchPredicate;
     }
 
-    void apply(BranchContext objectBranch, AttributeMapping<T, ?> m) {
-        T obj = (m.getResultingFieldType() != null) ? objectBranch.getInstance(m.getResultingFieldType()) : objectBranch.getInstance(m.getObjectBranchExtractor());
-        if (null != obj && !values.isEmpty()) {
+    /**
+     * Map the attribute values and set the result to the target object in the object branch.
+     *
+     * @param objectBranch the object branch of the running parser
+     * @param values       attribute values of the current element keyed by attribute name. Only valid during this invocation.
+     */
+    void apply(BranchContext objectBranch, Map<String, String> values) {
+        applyTo(resolve(objectBranch), objectBranch, values);
+    }
+
+    /**
+     * @param objectBranch the object branch of the running parser
+     * @return the target object of this mapping, or null if it is not in the object branch
+     */
+    T resolve(BranchContext objectBranch) {
+        return (resultingFieldType != null) ? objectBranch.getInstance(resultingFieldType) : objectBranch.getInstance(objectBranchExtractor);
+    }
+
+    /**
+     * Map the attribute values and set the result to a target object that the parser has already resolved.
+     *
+     * @param obj          the target object, or null if it is not in the object branch
+     * @param objectBranch the object branch of the running parser
+     * @param values       attribute values of the current element keyed by attribute name. Only valid during this invocation.
+     */
+    void applyTo(T obj, BranchContext objectBranch, Map<String, String> values) {
+        if (null != obj && !keys.isEmpty()) {
             K mappedValue = null;
             if (null != mapper) {
                 mappedValue = mapper.apply(values);
@@ -91,19 +127,15 @@ public class AttributeMapping<T, K> {
         }
     }
 
-    void setValue(String key, String value) {
-        values.put(key, value);
+    List<String> getKeys() {
+        return keys;
     }
 
-    void setBiMapper(BiFunction<Map<String, String>, BranchContext, K> biMapper) {
-        if (null != mapper) {
-            throw new IllegalStateException("Use either of the mappers");
-        }
-        this.biMapper = biMapper;
-    }
-
-    Set<String> getKeys() {
-        return values.keySet();
+    /**
+     * @return the attribute names of the keys, in the same order, resolved once when the mapping was constructed
+     */
+    List<QName> getNames() {
+        return names;
     }
 
     Class<T> getResultingFieldType() {
@@ -30,7 +30,6 @@ public class AttributeMappingExtended<T, K> extends AttributeMapping<T, K> {
      *               To set values that does not depend on an attribute, use the Start or End Processor callback.
      */
     public AttributeMappingExtended(Class<T> type, BiConsumer<T, K> setter, BiFunction<Map<String, String>, BranchContext, K> mapper, String... fields) {
-        super(type, setter, null, fields);
-        super.setBiMapper(mapper);
+        super(type, null, setter, null, mapper, fields);
     }
 }
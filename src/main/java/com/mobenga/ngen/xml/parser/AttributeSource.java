@@ -0,0 +1,19 @@
+package com.mobenga.ngen.xml.parser;
+
+/**
+ * Read access to the attributes of the XML start element that is currently processed by the {@link DocumentParser}.
+ * It hides whether the attributes are read from a {@code StartElement} event or directly from the cursor
+ * of an {@code XMLStreamReader}.
+ */
+interface AttributeSource {
+
+    /**
+     * Read the attributes needed by the compiled element in one pass over the attributes of the current start
+     * element. Only the values of needed attributes are read.
+     *
+     * @param element the compiled element of the current start element
+     * @param values  value buffer indexed by the attribute slots of the element. Slots of attributes that are not
+     *                present are set to null.
+     */
+    void readAttributes(CompiledElement element, String[] values);
+}
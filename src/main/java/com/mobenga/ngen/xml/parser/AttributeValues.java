@@ -0,0 +1,91 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read only {@link Map} view of the attribute values used by one {@link AttributeMapping} on the current element.
+ * The view is backed by the keys and attribute slots of the mapping in the {@link CompiledElement} and the value
+ * buffer of the {@link ParseCursor}, and it is re-pointed for every mapping invocation instead of being allocated.
+ * The entries are keyed and iterated as the attribute names were given to the mapping.
+ */
+final class AttributeValues extends AbstractMap<String, String> {
+    private String[] keys;
+    private int[] slots;
+    private String[] values;
+    private final EntrySet entrySet = new EntrySet();
+
+    /**
+     * @param keys   keys of the mapping
+     * @param slots  attribute slot of each key
+     * @param values value buffer indexed by slot
+     */
+    AttributeValues bind(String[] keys, int[] slots, String[] values) {
+        this.keys = keys;
+        this.slots = slots;
+        this.values = values;
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return slots.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[slots[index]];
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < slots.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+        @Override
+        public int size() {
+            return slots.length;
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<Entry<String, String>>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < slots.length;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (index >= slots.length) {
+                        throw new NoSuchElementException();
+                    }
+                    int i = index++;
+                    return new SimpleImmutableEntry<>(keys[i], values[slots[i]]);
+                }
+            };
+        }
+    }
+}
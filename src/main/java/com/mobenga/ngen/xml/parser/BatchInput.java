@@ -0,0 +1,89 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * One document of a batch parsed by a {@link BatchParser}: where to read it from, the compiled mappings to parse it
+ * with and the class of its result. Compile the mappings once with {@link CompiledMappings#compile(Mappings)} and
+ * share the plan between the inputs. The input is only opened when the document is parsed, on the thread that parses it, so
+ * a batch may refer to far more files or connections than can be open at the same time.
+ *
+ * @param <T> Required result type
+ */
+public final class BatchInput<T> {
+
+    /**
+     * Opens the stream of a document. The stream is closed by the batch parser.
+     */
+    @FunctionalInterface
+    public interface InputSource {
+        InputStream open() throws IOException;
+    }
+
+    private final InputSource source;
+    private final CompiledMappings plan;
+    private final Class<T> resultClass;
+    private final Object attachment;
+
+    private BatchInput(InputSource source, CompiledMappings plan, Class<T> resultClass, Object attachment) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.plan = Objects.requireNonNull(plan, "plan");
+        this.resultClass = Objects.requireNonNull(resultClass, "resultClass");
+        this.attachment = attachment;
+    }
+
+    /**
+     * @param source      opens the document
+     * @param plan        compiled mappings for the document
+     * @param resultClass Class for the required result type
+     * @param <T>         Required result type
+     * @return a batch input
+     */
+    public static <T> BatchInput<T> of(InputSource source, CompiledMappings plan, Class<T> resultClass) {
+        return new BatchInput<>(source, plan, resultClass, null);
+    }
+
+    /**
+     * @param xmlFile     the document
+     * @param plan        compiled mappings for the document
+     * @param resultClass Class for the required result type
+     * @param <T>         Required result type
+     * @return a batch input that is attached to the path of the file
+     */
+    public static <T> BatchInput<T> of(Path xmlFile, CompiledMappings plan, Class<T> resultClass) {
+        return of(() -> Files.newInputStream(xmlFile), plan, resultClass).attach(xmlFile);
+    }
+
+    /**
+     * @param attachment any object identifying the document, e.g. a file name or message id, to tell the results apart
+     * @return a copy of this input with the attachment
+     */
+    public BatchInput<T> attach(Object attachment) {
+        return new BatchInput<>(source, plan, resultClass, attachment);
+    }
+
+    public Object getAttachment() {
+        return attachment;
+    }
+
+    public Class<T> getResultClass() {
+        return resultClass;
+    }
+
+    InputSource getSource() {
+        return source;
+    }
+
+    CompiledMappings getPlan() {
+        return plan;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchInput{" + (null == attachment ? resultClass.getSimpleName() : attachment) + "}";
+    }
+}
@@ -0,0 +1,348 @@
+package com.mobenga.ngen.xml.parser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses batches of many small documents, e.g. files or messages read from sockets, where each parse mostly waits
+ * for its input. Each document is parsed by {@link XmlParser#parseXmlUnsafe(InputStream, DocumentParser, Class)} on
+ * a thread of its own, at most {@code maxConcurrency} documents at a time, and the results are returned in the order
+ * the documents complete:
+ * <pre>
+ *     try (BatchParser batchParser = xmlParser.batchParser().maxConcurrency(1000).timeout(Duration.ofSeconds(5)).build()) {
+ *         Iterator&lt;BatchResult&lt;Event&gt;&gt; results = batchParser.parse(inputs);
+ *         while (results.hasNext()) {
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ * On Java 21 and later the documents are parsed on virtual threads, so a blocked read does not hold a platform
+ * thread. On earlier versions a pool of platform threads is used, which grows to the concurrency limit. Another
+ * executor may be set on the builder, it is not shut down by the batch parser.
+ * <p>
+ * When a document times out, its input stream is closed to release the thread that reads it, and it fails with a
+ * {@link TimeoutException}. Its place is given to the next document right away, so the thread may still be
+ * finishing the parse while the next document starts.
+ * <p>
+ * A batch parser is thread safe; each iterator of results must be used by one thread.
+ */
+public final class BatchParser implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(BatchParser.class);
+    private static final int DEFAULT_MAX_CONCURRENCY = 256;
+
+    private final XmlParser xmlParser;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final boolean virtualThreads;
+    private final int maxConcurrency;
+    private final long timeoutNanos;
+    private final ScheduledThreadPoolExecutor timer;
+    private volatile boolean closed;
+
+    private BatchParser(XmlParser xmlParser, ExecutorService executor, int maxConcurrency, Duration timeout) {
+        this.xmlParser = xmlParser;
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutNanos = null == timeout ? 0 : timeout.toNanos();
+        if (null != executor) {
+            this.executor = executor;
+            this.ownExecutor = false;
+            this.virtualThreads = false;
+        } else {
+            ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+            this.executor = null != virtualThreadExecutor ? virtualThreadExecutor : newPlatformThreadExecutor();
+            this.ownExecutor = true;
+            this.virtualThreads = null != virtualThreadExecutor;
+        }
+        if (timeoutNanos > 0) {
+            this.timer = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("xml-batch-timeout-"));
+            this.timer.setRemoveOnCancelPolicy(true);
+        } else {
+            this.timer = null;
+        }
+    }
+
+    /**
+     * Looked up by reflection, since the parser is built for Java 8.
+     *
+     * @return an executor that starts a virtual thread per task, or null before Java 21
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Virtual threads are not available, documents are parsed on platform threads.");
+            return null;
+        }
+    }
+
+    /**
+     * Threads are created as needed and are not queued for, so a document that timed out and is still being
+     * finished does not delay the next document.
+     */
+    private static ExecutorService newPlatformThreadExecutor() {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                daemonThreadFactory("xml-batch-"));
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Start parsing a batch of documents. At most the concurrency limit of documents are parsed at a time; the
+     * next document is started when a result is taken from the iterator, so inputs are read from the iterable only
+     * as fast as the results are consumed.
+     *
+     * @param inputs the documents to parse
+     * @param <T>    Required result type
+     * @return the results, in the order the documents complete. {@link Iterator#next()} blocks until the next
+     * document completes.
+     */
+    public <T> Iterator<BatchResult<T>> parse(Iterable<? extends BatchInput<? extends T>> inputs) {
+        return new BatchIterator<>(inputs.iterator());
+    }
+
+    /**
+     * @return true if the documents are parsed on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Shut down the executor created by the batch parser and the timer. Documents being parsed are finished; the
+     * documents of a batch that are not started yet fail with a {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+        if (null != timer) {
+            timer.shutdownNow();
+        }
+    }
+
+    private static void closeQuietly(InputStream xmlStream) {
+        try {
+            xmlStream.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the XML stream of a batch document.", e);
+        }
+    }
+
+    /**
+     * Keeps up to the concurrency limit of documents in progress, and starts the next document for each result
+     * taken.
+     */
+    private final class BatchIterator<T> implements Iterator<BatchResult<T>> {
+        private final Iterator<? extends BatchInput<? extends T>> pending;
+        private final BlockingQueue<BatchResult<T>> completed = new LinkedBlockingQueue<>();
+        private int running;
+
+        private BatchIterator(Iterator<? extends BatchInput<? extends T>> pending) {
+            this.pending = pending;
+            while (running < maxConcurrency && pending.hasNext()) {
+                start(pending.next());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return running > 0;
+        }
+
+        @Override
+        public BatchResult<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BatchResult<T> result;
+            try {
+                result = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a batch document.", e);
+            }
+            running--;
+            if (pending.hasNext()) {
+                start(pending.next());
+            }
+            return result;
+        }
+
+        /**
+         * Start a document. A document that can not be started completes right away with the failure, so there is a
+         * result for every document that is counted as running.
+         */
+        private void start(BatchInput<? extends T> input) {
+            BatchTask<T> task = new BatchTask<>(Objects.requireNonNull(input, "input"), completed);
+            running++;
+            if (closed) {
+                task.complete(null, new RejectedExecutionException("The batch parser is closed."));
+                return;
+            }
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.complete(null, e);
+                return;
+            }
+            if (null != timer) {
+                try {
+                    task.timeout = timer.schedule(task::timeOut, timeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Closed after the document was started, it is finished without a timeout
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses one document. The parse and the timeout race to deliver the result, only the first one is delivered.
+     */
+    private final class BatchTask<T> implements Runnable {
+        private final BatchInput<? extends T> input;
+        private final BlockingQueue<BatchResult<T>> completed;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final long start = System.nanoTime();
+        private volatile InputStream xmlStream;
+        private volatile ScheduledFuture<?> timeout;
+
+        private BatchTask(BatchInput<? extends T> input, BlockingQueue<BatchResult<T>> completed) {
+            this.input = input;
+            this.completed = completed;
+        }
+
+        @Override
+        public void run() {
+            if (done.get()) {
+                return;
+            }
+            try {
+                CompiledMappings plan = input.getPlan();
+                xmlStream = input.getSource().open();
+                if (done.get()) {
+                    // Timed out while the input was opened
+                    closeQuietly(xmlStream);
+                    return;
+                }
+                T result = xmlParser.parseXmlUnsafe(xmlStream, new DocumentParser(plan), input.getResultClass());
+                complete(result, null);
+            } catch (Throwable e) {
+                // Every started document has a result, else the iterator would wait for it forever
+                complete(null, e);
+                if (e instanceof VirtualMachineError) {
+                    throw (VirtualMachineError) e;
+                }
+            }
+        }
+
+        private void timeOut() {
+            if (done.compareAndSet(false, true)) {
+                long nanos = System.nanoTime() - start;
+                InputStream stream = xmlStream;
+                if (null != stream) {
+                    closeQuietly(stream);
+                }
+                completed.add(new BatchResult<>(input, null,
+                        new TimeoutException("The document was not parsed within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms."),
+                        nanos));
+            }
+        }
+
+        private void complete(T result, Throwable failure) {
+            // Closed before the result is delivered, so the inputs open never exceed the concurrency limit
+            InputStream stream = xmlStream;
+            if (null != stream) {
+                closeQuietly(stream);
+            }
+            if (done.compareAndSet(false, true)) {
+                ScheduledFuture<?> scheduledTimeout = timeout;
+                if (null != scheduledTimeout) {
+                    scheduledTimeout.cancel(false);
+                }
+                completed.add(new BatchResult<>(input, result, failure, System.nanoTime() - start));
+            } else if (null != failure && log.isDebugEnabled()) {
+                log.debug("Batch document {} failed after it timed out.", input, failure);
+            }
+        }
+    }
+
+    public static class BatchParserBuilder {
+        private final XmlParser xmlParser;
+        private ExecutorService executor;
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private Duration timeout;
+
+        BatchParserBuilder(XmlParser xmlParser) {
+            this.xmlParser = xmlParser;
+        }
+
+        /**
+         * @param maxConcurrency the maximum number of documents parsed at the same time, 256 by default
+         */
+        public BatchParserBuilder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("The concurrency limit must be positive: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param timeout the maximum time to parse one document, from when it is started. No timeout by default.
+         */
+        public BatchParserBuilder timeout(Duration timeout) {
+            if (null != timeout && (timeout.isNegative() || timeout.isZero())) {
+                throw new IllegalArgumentException("The timeout must be positive: " + timeout);
+            }
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * @param executor runs the parses instead of virtual threads. It must not queue tasks behind the running
+         *                 parses, or documents wait for a thread within their timeout.
+         */
+        public BatchParserBuilder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public BatchParser build() {
+            return new BatchParser(xmlParser, executor, maxConcurrency, timeout);
+        }
+    }
+}
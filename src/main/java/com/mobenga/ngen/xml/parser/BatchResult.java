@@ -0,0 +1,61 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The outcome of parsing one {@link BatchInput}: either the result of the document, or the failure that ended it.
+ * A document that was not parsed within the timeout of the batch parser fails with a {@link TimeoutException}.
+ *
+ * @param <T> Required result type
+ */
+public final class BatchResult<T> {
+    private final BatchInput<? extends T> input;
+    private final T result;
+    private final Throwable failure;
+    private final long nanos;
+
+    BatchResult(BatchInput<? extends T> input, T result, Throwable failure, long nanos) {
+        this.input = input;
+        this.result = result;
+        this.failure = failure;
+        this.nanos = nanos;
+    }
+
+    public BatchInput<? extends T> getInput() {
+        return input;
+    }
+
+    /**
+     * @return the result of the document, or null if the parse failed or no object of the result class was available
+     */
+    public T getResult() {
+        return result;
+    }
+
+    /**
+     * @return the exception thrown while the document was opened or parsed, or null if the parse succeeded
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return null == failure;
+    }
+
+    public boolean isTimedOut() {
+        return failure instanceof TimeoutException;
+    }
+
+    /**
+     * @return the time from the start of the parse until the document was parsed, failed or timed out
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" + input + (null == failure ? ", result=" + result : ", failure=" + failure) + "}";
+    }
+}
@@ -0,0 +1,58 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.Predicate;
+
+/**
+ * Attribute mapping for a single attribute to a boolean field. The value is mapped and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setSuspended(boolean)} setter:
+ * {@code new BooleanAttributeMapping<>(Selection.class, Selection::setSuspended, "suspended")}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class BooleanAttributeMapping<T> extends SingleAttributeMapping<T, Boolean> {
+    private final ObjBooleanConsumer<T> setter;
+    private final Predicate<CharSequence> mapper;
+
+    /**
+     * A setter taking an object and a boolean, the boolean counterpart of {@link java.util.function.ObjIntConsumer}.
+     *
+     * @param <T> type of the object
+     */
+    @FunctionalInterface
+    public interface ObjBooleanConsumer<T> {
+        void accept(T t, boolean value);
+    }
+
+    /**
+     * Constructs an attribute mapping parsing the value with {@link MappingUtil#parseBoolean(CharSequence)}.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking a boolean.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public BooleanAttributeMapping(Class<T> resultingFieldType, ObjBooleanConsumer<T> setter, String field) {
+        this(resultingFieldType, setter, MappingUtil::parseBoolean, field);
+    }
+
+    /**
+     * Constructs an attribute mapping.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking a boolean.
+     * @param mapper             Mapper method used to map the attribute value to a boolean.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public BooleanAttributeMapping(Class<T> resultingFieldType, ObjBooleanConsumer<T> setter, Predicate<CharSequence> mapper, String field) {
+        super(resultingFieldType, field);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, String value) {
+        setter.accept(obj, mapper.test(value));
+    }
+}
@@ -0,0 +1,52 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.Predicate;
+
+/**
+ * Element text mapping of the trimmed text to a boolean field. The text is mapped from the text buffer of the
+ * document parser and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setLive(boolean)} setter:
+ * {@code new BooleanElementTextMapping<>(Selection.class, Selection::setLive)}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class BooleanElementTextMapping<T> extends PrimitiveElementTextMapping<T, Boolean> {
+    private final BooleanAttributeMapping.ObjBooleanConsumer<T> setter;
+    private final Predicate<CharSequence> mapper;
+
+    /**
+     * Constructs an element text mapping parsing the text with {@link MappingUtil#parseBoolean(CharSequence)}.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking a boolean.
+     */
+    public BooleanElementTextMapping(Class<T> type, BooleanAttributeMapping.ObjBooleanConsumer<T> setter) {
+        this(type, setter, MappingUtil::parseBoolean);
+    }
+
+    /**
+     * Constructs an element text mapping.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking a boolean.
+     * @param mapper Mapper method used to map the text to a boolean. The text is only valid during the invocation.
+     */
+    public BooleanElementTextMapping(Class<T> type, BooleanAttributeMapping.ObjBooleanConsumer<T> setter, Predicate<CharSequence> mapper) {
+        super(type);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, CharSequence value) {
+        setter.accept(obj, mapper.test(value));
+    }
+
+    @Override
+    Boolean map(CharSequence value) {
+        return mapper.test(value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * An element text mapping with a mapper that consumes the text as a {@link CharSequence}. The chunks of a text
+ * run are copied from the reader into a text buffer of the {@link DocumentParser}, and the sequence is a trimmed
+ * view over that buffer, so text that is mapped to numbers or other non String types is never copied into a
+ * String. The buffer is cleared and reused for the next text run as soon as the mappings of the element have run,
+ * so the sequence is only valid while the mapper runs and must not be kept by it.
+ * <p>
+ * For example, with the number parsers of {@link com.mobenga.ngen.xml.util.MappingUtil}, for a class
+ * {@code Selection} with a {@code setPrice(double)} setter:
+ * {@code new CharSequenceElementTextMapping<>(Selection.class, Selection::setPrice, MappingUtil::parseDouble)}
+ *
+ * @param <T> Map the field to an object of this class
+ * @param <K> Type of the value to be mapped
+ */
+public class CharSequenceElementTextMapping<T, K> extends ElementTextMapping<T, K> {
+    private final Function<CharSequence, K> charSequenceMapper;
+
+    /**
+     * Constructs a element text mapping to set a single field to a single java object.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class described as a BiConsumer.
+     *               (A non static method reference executed with a single argument and no return value.)
+     * @param mapper Mapper method used to map the XML text to desired java type.
+     *               (A static method reference executed with a single argument and a return value.)
+     */
+    public CharSequenceElementTextMapping(Class<T> type, BiConsumer<T, K> setter, Function<CharSequence, K> mapper) {
+        super(type, setter, null);
+        this.charSequenceMapper = mapper;
+    }
+
+    @Override
+    K map(CharSequence value) {
+        return charSequenceMapper.apply(value);
+    }
+}
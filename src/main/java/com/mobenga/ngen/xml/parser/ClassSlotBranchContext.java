@@ -0,0 +1,142 @@
+package com.mobenga.ngen.xml.parser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A class based object branch with the same rule as {@link ProtectedClassMap}: each object in the branch must be of
+ * a unique class. Instead of hashing, each class has a slot in an object array. The classes used by the attribute
+ * and element text mappings get their slots when the {@link CompiledMappings} plan is compiled, and a
+ * {@link DocumentParser} executing that plan resolves the target object of each mapping by array index.
+ * Other classes put on the branch, e.g. by start processors, get a slot the first time they are put.
+ * <pre>
+ *     DocumentParser documentParser = new DocumentParser(plan, new ClassSlotBranchContext(plan));
+ * </pre>
+ * Like {@link ProtectedClassMap}, lookups by class match the exact class an object was put with.
+ */
+public class ClassSlotBranchContext implements BranchContext {
+    private static final Logger log = LoggerFactory.getLogger(ClassSlotBranchContext.class);
+    private final ClassSlots classSlots;
+    private Class<?>[] otherClasses = new Class<?>[0];
+    private Object[] instances;
+
+    /**
+     * Creates an empty object branch with the class slots of the plan.
+     *
+     * @param plan compiled mappings that this object branch is used with.
+     */
+    public ClassSlotBranchContext(CompiledMappings plan) {
+        this.classSlots = plan.getClassSlots();
+        this.instances = new Object[classSlots.size()];
+    }
+
+    /**
+     * @return true if the mapping slots of the plan are valid for this object branch.
+     */
+    boolean hasClassSlots(ClassSlots planClassSlots) {
+        return classSlots == planClassSlots;
+    }
+
+    Object getInstance(int slot) {
+        return instances[slot];
+    }
+
+    /**
+     * @return the slot of the class, or -1 if the class has no slot yet and none is to be assigned
+     */
+    private int slotOf(Class<?> type, boolean assign) {
+        int slot = classSlots.slotOf(type);
+        if (slot >= 0) {
+            return slot;
+        }
+        for (int i = 0; i < otherClasses.length; i++) {
+            if (otherClasses[i] == type) {
+                return classSlots.size() + i;
+            }
+        }
+        if (!assign) {
+            return -1;
+        }
+        otherClasses = Arrays.copyOf(otherClasses, otherClasses.length + 1);
+        otherClasses[otherClasses.length - 1] = type;
+        instances = Arrays.copyOf(instances, classSlots.size() + otherClasses.length);
+        return instances.length - 1;
+    }
+
+    @Override
+    public <T> T getInstance(Class<T> objType) {
+        int slot = slotOf(objType, false);
+        return slot < 0 ? null : (T) instances[slot];
+    }
+
+    @Override
+    public <T> T getInstance(Predicate<Object> predicate) {
+        int slot = slotOf(predicate);
+        return slot < 0 ? null : (T) instances[slot];
+    }
+
+    private int slotOf(Predicate<Object> predicate) {
+        for (int slot = 0; slot < instances.length; slot++) {
+            if (null != instances[slot] && predicate.test(instances[slot])) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public <T> T pop(Class<T> objType) {
+        if (log.isDebugEnabled()) {
+            log.debug("Pop object of type {}", objType.getName());
+        }
+        int slot = slotOf(objType, false);
+        T obj = slot < 0 ? null : (T) instances[slot];
+        if (null == obj) {
+            if (log.isWarnEnabled()) {
+                log.warn("Object of type {} did not exist in the BranchContext during pop.", objType.getName());
+            }
+            return null;
+        }
+        instances[slot] = null;
+        return obj;
+    }
+
+    @Override
+    public <T> T pop(Predicate<Object> predicate) {
+        int slot = slotOf(predicate);
+        if (slot < 0) {
+            log.warn("Object did not exist in the BranchContext during pop by predicate.");
+            return null;
+        }
+        T obj = (T) instances[slot];
+        instances[slot] = null;
+        return obj;
+    }
+
+    /**
+     * Put an object into the slot of the specified type.
+     *
+     * @param objType provided object type.
+     * @param obj     provided object to store.
+     * @throws IllegalStateException Exception is thrown if the branch already contains an object of the specified type/class.
+     */
+    @Override
+    public void put(Class objType, Object obj) {
+        if (log.isDebugEnabled()) {
+            log.debug("Push object of type {}", objType.getName());
+        }
+        int slot = slotOf(objType, true);
+        if (null != instances[slot]) {
+            throw new IllegalStateException("Misconfiguration of Mappings File.\nAn object of type " + objType.getName() + " already exists on this branch. Pop object type first!");
+        }
+        instances[slot] = objType.cast(obj);
+    }
+
+    @Override
+    public void put(Object object) {
+        instances[slotOf(object.getClass(), true)] = object;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.Map;
+
+/**
+ * Immutable table of the classes that the attribute and element text mappings of a {@link CompiledMappings} plan
+ * set their values on. Each class has a small integer slot, assigned when the plan is compiled, which a
+ * {@link ClassSlotBranchContext} uses as index into its object array.
+ * <p>
+ * Classes are looked up by identity in a linear scan, which for the handful of classes of a typical plan is cheaper
+ * than hashing.
+ */
+final class ClassSlots {
+    private final Class<?>[] classes;
+
+    ClassSlots(Map<Class<?>, Integer> slots) {
+        this.classes = new Class<?>[slots.size()];
+        slots.forEach((type, slot) -> classes[slot] = type);
+    }
+
+    /**
+     * @return the slot of the class, or -1 if it is not used by any mapping of the plan
+     */
+    int slotOf(Class<?> type) {
+        for (int slot = 0; slot < classes.length; slot++) {
+            if (classes[slot] == type) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    Class<?> getType(int slot) {
+        return classes[slot];
+    }
+
+    int size() {
+        return classes.length;
+    }
+}
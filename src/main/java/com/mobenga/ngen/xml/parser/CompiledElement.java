@@ -0,0 +1,245 @@
+package com.mobenga.ngen.xml.parser;
+
+import javax.xml.namespace.QName;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable, compiled form of one {@link ElementParserSettings}. All attribute names referenced by the
+ * attribute mappings and the start processor of the element are collected in one table, and each mapping
+ * refers to its attributes by slot index in that table. A small open addressing hash table on the local names
+ * finds the slot of each attribute of a start element, so reading the attributes costs O(attributes) regardless
+ * of the number of mappings and keys.
+ *
+ * @see CompiledMappings
+ */
+final class CompiledElement {
+    private static final AttributeMapping<?, ?>[] NO_ATTRIBUTE_MAPPINGS = new AttributeMapping<?, ?>[0];
+    private static final ElementTextMapping<?, ?>[] NO_TEXT_MAPPINGS = new ElementTextMapping<?, ?>[0];
+
+    private final String elementName;
+    private final Map<String, CompiledElement> subElements = new HashMap<>();
+    private final String[] attributeLocalNames;
+    private final String[] attributeNamespaces;
+    private final int[] attributeSlotTable;
+    private final AttributeMapping<?, ?>[] attributeMappings;
+    private final int[][] attributeMappingSlots;
+    private final String[][] attributeMappingKeys;
+    private final String[] attributeMappingNames;
+    private final int[] attributeMappingClassSlots;
+    private final ElementTextMapping<?, ?>[] elementTextMappings;
+    private final int[] elementTextMappingClassSlots;
+    private final boolean textNeeded;
+    private final Consumer<BranchContext> elementStartProcessor;
+    private final BiConsumer<BranchContext, String> elementStartProcessorBi;
+    private final int elementStartProcessorBiSlot;
+    private final Consumer<BranchContext> elementEndProcessor;
+    private final Function<BranchContext, ?> elementEndEmitter;
+    private final boolean terminal;
+
+    /**
+     * @param settings   the settings to compile
+     * @param classSlots slots of the mapped classes of the whole plan, classes of this element are added
+     */
+    CompiledElement(ElementParserSettings settings, Map<Class<?>, Integer> classSlots) {
+        Map<QName, Integer> slots = new LinkedHashMap<>();
+        this.elementName = settings.getElementName();
+        this.elementStartProcessor = settings.getElementStartProcessor();
+        this.elementEndProcessor = settings.getElementEndProcessor();
+        this.elementEndEmitter = settings.getElementEndEmitter();
+        this.terminal = settings.isTerminal();
+
+        String startProcessorBiAttributeName = settings.getElementStartProcessorBiAttributeName();
+        if (null != settings.getElementStartProcessorBi() && null != startProcessorBiAttributeName) {
+            this.elementStartProcessorBi = settings.getElementStartProcessorBi();
+            this.elementStartProcessorBiSlot = slot(slots, QName.valueOf(startProcessorBiAttributeName));
+        } else {
+            this.elementStartProcessorBi = null;
+            this.elementStartProcessorBiSlot = -1;
+        }
+
+        List<AttributeMapping> mappings = settings.getAttributeMappings();
+        if (null == mappings || mappings.isEmpty()) {
+            this.attributeMappings = NO_ATTRIBUTE_MAPPINGS;
+            this.attributeMappingSlots = new int[0][];
+            this.attributeMappingKeys = new String[0][];
+            this.attributeMappingNames = new String[0];
+            this.attributeMappingClassSlots = new int[0];
+        } else {
+            this.attributeMappings = mappings.toArray(new AttributeMapping<?, ?>[mappings.size()]);
+            this.attributeMappingSlots = new int[attributeMappings.length][];
+            this.attributeMappingKeys = new String[attributeMappings.length][];
+            this.attributeMappingNames = new String[attributeMappings.length];
+            this.attributeMappingClassSlots = new int[attributeMappings.length];
+            for (int i = 0; i < attributeMappings.length; i++) {
+                attributeMappingClassSlots[i] = classSlot(classSlots, attributeMappings[i].getResultingFieldType());
+                List<QName> names = attributeMappings[i].getNames();
+                int[] mappingSlots = new int[names.size()];
+                for (int j = 0; j < mappingSlots.length; j++) {
+                    mappingSlots[j] = slot(slots, names.get(j));
+                }
+                this.attributeMappingSlots[i] = mappingSlots;
+                this.attributeMappingKeys[i] = attributeMappings[i].getKeys().toArray(new String[mappingSlots.length]);
+                this.attributeMappingNames[i] = String.join(",", attributeMappings[i].getKeys());
+            }
+        }
+        this.attributeLocalNames = new String[slots.size()];
+        this.attributeNamespaces = new String[slots.size()];
+        slots.forEach((name, slot) -> {
+            attributeLocalNames[slot] = name.getLocalPart();
+            attributeNamespaces[slot] = name.getNamespaceURI();
+        });
+        this.attributeSlotTable = slotTable(attributeLocalNames);
+
+        List<ElementTextMapping> textMappings = settings.getElementTextMappings();
+        this.elementTextMappings = null == textMappings || textMappings.isEmpty()
+                ? NO_TEXT_MAPPINGS
+                : textMappings.toArray(new ElementTextMapping<?, ?>[textMappings.size()]);
+        this.elementTextMappingClassSlots = new int[elementTextMappings.length];
+        for (int i = 0; i < elementTextMappings.length; i++) {
+            elementTextMappingClassSlots[i] = classSlot(classSlots, elementTextMappings[i].getType());
+        }
+        this.textNeeded = elementTextMappings.length > 0;
+    }
+
+    private static int slot(Map<QName, Integer> slots, QName attributeName) {
+        return slots.computeIfAbsent(attributeName, name -> slots.size());
+    }
+
+    /**
+     * @return a hash table with a capacity of at least twice the number of slots, holding slot + 1 at the position
+     * of the local name, or 0 for empty positions
+     */
+    private static int[] slotTable(String[] localNames) {
+        int capacity = Integer.highestOneBit(Math.max(1, localNames.length) * 4 - 1);
+        int[] table = new int[capacity];
+        for (int slot = 0; slot < localNames.length; slot++) {
+            int index = hash(localNames[slot]) & (capacity - 1);
+            while (table[index] != 0) {
+                index = (index + 1) & (capacity - 1);
+            }
+            table[index] = slot + 1;
+        }
+        return table;
+    }
+
+    private static int hash(String localName) {
+        int h = localName.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the slot of the class, or -1 for mappings that find their object with a predicate
+     */
+    private static int classSlot(Map<Class<?>, Integer> classSlots, Class<?> type) {
+        return null == type ? -1 : classSlots.computeIfAbsent(type, t -> classSlots.size());
+    }
+
+    /**
+     * Only invoked while the plan is compiled, before it is published.
+     */
+    void addSubElement(CompiledElement subElement) {
+        subElements.put(subElement.getElementName(), subElement);
+    }
+
+    String getElementName() {
+        return elementName;
+    }
+
+    CompiledElement getSubElement(String elementName) {
+        return subElements.get(elementName);
+    }
+
+    int getAttributeSlotCount() {
+        return attributeLocalNames.length;
+    }
+
+    /**
+     * Find the slot of an attribute of the start element, comparing the names built when the plan was compiled.
+     *
+     * @param localName local name of the attribute
+     * @param namespace namespace URI of the attribute, empty or null for no namespace
+     * @return the slot, or -1 if no mapping of this element needs the attribute
+     */
+    int getAttributeSlot(String localName, String namespace) {
+        int mask = attributeSlotTable.length - 1;
+        int index = hash(localName) & mask;
+        int entry;
+        while ((entry = attributeSlotTable[index]) != 0) {
+            int slot = entry - 1;
+            if (attributeLocalNames[slot].equals(localName)
+                    && attributeNamespaces[slot].equals(null == namespace ? "" : namespace)) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the element has element text mappings, else its text is not read at all.
+     */
+    boolean isTextNeeded() {
+        return textNeeded;
+    }
+
+    AttributeMapping<?, ?>[] getAttributeMappings() {
+        return attributeMappings;
+    }
+
+    int[] getAttributeMappingSlots(int mappingIndex) {
+        return attributeMappingSlots[mappingIndex];
+    }
+
+    String[] getAttributeMappingKeys(int mappingIndex) {
+        return attributeMappingKeys[mappingIndex];
+    }
+
+    /**
+     * @return the attribute names of the mapping separated by commas, to identify the mapping in instrumentation
+     */
+    String getAttributeMappingName(int mappingIndex) {
+        return attributeMappingNames[mappingIndex];
+    }
+
+    int getAttributeMappingClassSlot(int mappingIndex) {
+        return attributeMappingClassSlots[mappingIndex];
+    }
+
+    ElementTextMapping<?, ?>[] getElementTextMappings() {
+        return elementTextMappings;
+    }
+
+    int getElementTextMappingClassSlot(int mappingIndex) {
+        return elementTextMappingClassSlots[mappingIndex];
+    }
+
+    Consumer<BranchContext> getElementStartProcessor() {
+        return elementStartProcessor;
+    }
+
+    BiConsumer<BranchContext, String> getElementStartProcessorBi() {
+        return elementStartProcessorBi;
+    }
+
+    int getElementStartProcessorBiSlot() {
+        return elementStartProcessorBiSlot;
+    }
+
+    Consumer<BranchContext> getElementEndProcessor() {
+        return elementEndProcessor;
+    }
+
+    Function<BranchContext, ?> getElementEndEmitter() {
+        return elementEndEmitter;
+    }
+
+    boolean isTerminal() {
+        return terminal;
+    }
+}
@@ -0,0 +1,100 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable, compiled plan of a {@link Mappings} tree. The plan contains the element name tables, the attribute
+ * slot tables and the mapper chains of all {@link ElementParserSettings} reachable from the top element.
+ * <p>
+ * Compiling is done once, typically at application startup. The plan can then be shared by any number of threads,
+ * each parsing with its own {@link DocumentParser}:
+ * <pre>
+ *     CompiledMappings plan = CompiledMappings.compile(new XmlMappings());
+ *     ...
+ *     Event event = xmlParser.parseXmlUnsafe(xmlStream, new DocumentParser(plan), Event.class);
+ * </pre>
+ * Changes made to the {@code ElementParserSettings} after compilation are not reflected in the plan.
+ */
+public final class CompiledMappings {
+    private static final String ROOT = "root";
+
+    private final CompiledElement root;
+    private final String topElementName;
+    private final int maxAttributeSlots;
+    private final ClassSlots classSlots;
+
+    private CompiledMappings(CompiledElement root, String topElementName, int maxAttributeSlots, ClassSlots classSlots) {
+        this.root = root;
+        this.topElementName = topElementName;
+        this.maxAttributeSlots = maxAttributeSlots;
+        this.classSlots = classSlots;
+    }
+
+    /**
+     * Compile the mappings into an immutable plan.
+     *
+     * @param mappings mappings providing the ElementParserSettings for the top XML element.
+     * @return the compiled plan
+     * @throws IllegalArgumentException if the mappings does not provide any settings.
+     */
+    public static CompiledMappings compile(Mappings mappings) {
+        ElementParserSettings settings = null == mappings ? null : mappings.getSettings();
+        if (null == settings) {
+            throw new IllegalArgumentException("Incorrect Mappings was provided to the " + CompiledMappings.class);
+        }
+        ElementParserSettings rootSettings = new ElementParserSettings(ROOT);
+        rootSettings.setSubElementParsers(settings);
+
+        Map<ElementParserSettings, CompiledElement> compiled = new IdentityHashMap<>();
+        Deque<ElementParserSettings> pending = new ArrayDeque<>();
+        Map<Class<?>, Integer> classSlots = new LinkedHashMap<>();
+        CompiledElement root = compile(rootSettings, compiled, pending, classSlots);
+        int maxAttributeSlots = 0;
+        while (!pending.isEmpty()) {
+            ElementParserSettings elementSettings = pending.pop();
+            CompiledElement element = compiled.get(elementSettings);
+            maxAttributeSlots = Math.max(maxAttributeSlots, element.getAttributeSlotCount());
+            Map<String, ElementParserSettings> subElementParsers = elementSettings.getSubElementParsers();
+            if (null != subElementParsers) {
+                for (ElementParserSettings subElementSettings : subElementParsers.values()) {
+                    element.addSubElement(compile(subElementSettings, compiled, pending, classSlots));
+                }
+            }
+        }
+        return new CompiledMappings(root, settings.getElementName(), maxAttributeSlots, new ClassSlots(classSlots));
+    }
+
+    private static CompiledElement compile(ElementParserSettings settings, Map<ElementParserSettings, CompiledElement> compiled,
+                                           Deque<ElementParserSettings> pending, Map<Class<?>, Integer> classSlots) {
+        CompiledElement element = compiled.get(settings);
+        if (null == element) {
+            element = new CompiledElement(settings, classSlots);
+            compiled.put(settings, element);
+            pending.push(settings);
+        }
+        return element;
+    }
+
+    CompiledElement getRoot() {
+        return root;
+    }
+
+    /**
+     * @return the element name of the settings of the top XML element
+     */
+    String getTopElementName() {
+        return topElementName;
+    }
+
+    int getMaxAttributeSlots() {
+        return maxAttributeSlots;
+    }
+
+    ClassSlots getClassSlots() {
+        return classSlots;
+    }
+}
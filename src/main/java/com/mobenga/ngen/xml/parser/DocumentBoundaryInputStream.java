@@ -0,0 +1,122 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Splits a stream of consecutive XML documents into one input stream per document, without copying the documents
+ * apart. The bytes are scanned with a {@link MarkupScanner} as they are read, and the stream reports end of stream
+ * right after the end tag of the root element of the current document. {@link #nextDocument()} then starts the next
+ * document, skipping the whitespace in between.
+ * <p>
+ * Comments and processing instructions after a root element are read as the head of the next document. An XML
+ * declaration is allowed at the start of each document. Only ASCII compatible encodings can be scanned.
+ */
+final class DocumentBoundaryInputStream extends InputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final MarkupScanner scanner = new MarkupScanner();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+    private boolean documentEnded = true;
+
+    DocumentBoundaryInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Start reading the next document. The unread rest of the current document is skipped.
+     *
+     * @return false if the stream has ended before the next document.
+     * @throws IOException if the underlying stream fails.
+     */
+    boolean nextDocument() throws IOException {
+        while (!documentEnded) {
+            if (position == limit && !fill()) {
+                documentEnded = true;
+            } else {
+                scan(position, limit - position);
+            }
+        }
+        scanner.reset();
+        while (true) {
+            if (position == limit && !fill()) {
+                return false;
+            }
+            byte b = buffer[position];
+            if (' ' != b && '\n' != b && '\r' != b && '\t' != b) {
+                documentEnded = false;
+                return true;
+            }
+            position++;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (documentEnded || (position == limit && !fill())) {
+            documentEnded = true;
+            return -1;
+        }
+        int start = position;
+        int count = scan(start, Math.min(length, limit - start));
+        System.arraycopy(buffer, start, bytes, offset, count);
+        return count;
+    }
+
+    /**
+     * Scan up to {@code length} bytes from {@code start}, stopping after the end of the root element.
+     *
+     * @return the number of bytes consumed
+     */
+    private int scan(int start, int length) {
+        int end = start + length;
+        for (int i = start; i < end; i++) {
+            int tag = scanner.update(buffer[i]);
+            if ((MarkupScanner.END_TAG == tag || MarkupScanner.EMPTY_TAG == tag) && scanner.getDepth() == 0) {
+                documentEnded = true;
+                position = i + 1;
+                return position - start;
+            }
+        }
+        position = end;
+        return length;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        while (read == 0) {
+            read = in.read(buffer, 0, buffer.length);
+        }
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,33 @@
+package com.mobenga.ngen.xml.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the parse of one document, committed by the {@link JfrParseListener}.
+ */
+@Name("com.mobenga.ngen.xml.DocumentParse")
+@Label("XML Document Parse")
+@Description("Parse of one XML document")
+@Category({"NGen XML Parser"})
+@StackTrace(false)
+class DocumentParseEvent extends jdk.jfr.Event {
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Elements")
+    @Description("Mapped elements")
+    int elements;
+
+    @Label("Skipped Elements")
+    int skippedElements;
+
+    @Label("Result Class")
+    @Description("Class of the requested result, or of the emitted objects for streaming parses")
+    Class<?> resultClass;
+}
@@ -4,26 +4,50 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * The NGen XML Document Parser is a direct mapped XML StAX parser.
  * It maps XML tags directly to an arbitrary java object structure that
  * does not necessarily have to reflect the XML document structure.
  * More information including examples are found at Confluence.
+ * <p>
+ * A document parser holds the state of one parse and must not be used by several threads at the same time.
+ * The mappings it executes are held in an immutable {@link CompiledMappings} plan that may be shared, so
+ * creating a document parser from a precompiled plan is cheap. A document parser may also be reused for
+ * consecutive documents on the same thread, see {@link #reset(BranchContext)}.
  */
 public class DocumentParser {
     private static final Logger log = LoggerFactory.getLogger(DocumentParser.class);
-    private final Deque<ElementParserSettings> documentParserStack = new ArrayDeque<>();
-    private final BranchContext currentElementBranch;
+    private final ParseCursor cursor;
+    private final ClassSlots classSlots;
+    private final StreamReaderAttributes streamReaderAttributes = new StreamReaderAttributes();
+    private final StartElementAttributes startElementAttributes = new StartElementAttributes();
+    private final TextView textView = new TextView();
+    private final TextBuffer textBuffer = new TextBuffer();
+    private BranchContext currentElementBranch;
+    private ClassSlotBranchContext slotBranch;
+    private int skippedElementCount;
+    private long skippedCharacterCount;
+    private int missingObjectCount;
+    private boolean diagnostics;
+    private boolean debugEnabled;
+    private ParseListener listener;
+    private CountingInputStream input;
+    private String unmappedElementName;
+    private Predicate<BranchContext> completionPredicate;
+    private boolean complete;
+    private Consumer<Object> emittedObjectConsumer;
 
     /**
      * Create a new XML document parser with the provided mappings
@@ -44,90 +68,341 @@ public class DocumentParser {
      * @see BranchContext
      */
     public DocumentParser(Mappings mappings, BranchContext objectBranch) {
-        this.currentElementBranch = objectBranch;
-        if (null == mappings || null == mappings.getSettings()) {
+        this(CompiledMappings.compile(mappings), objectBranch);
+    }
+
+    /**
+     * Create a new XML document parser executing a precompiled mapping plan.
+     *
+     * @param plan compiled mappings, may be shared with other document parsers.
+     */
+    public DocumentParser(CompiledMappings plan) {
+        this(plan, new ProtectedClassMap());
+    }
+
+    /**
+     * Create a new XML document parser executing a precompiled mapping plan, starting of with the
+     * provided {@link com.mobenga.ngen.xml.parser.BranchContext object branch}.
+     *
+     * @param plan         compiled mappings, may be shared with other document parsers.
+     * @param objectBranch Object branch typically pre loaded with the top element in order to add information to existing java objects.
+     */
+    public DocumentParser(CompiledMappings plan, BranchContext objectBranch) {
+        if (null == plan) {
             throw new IllegalArgumentException("Incorrect Mappings was provided to the " + getClass());
         }
-        ElementParserSettings elementParserSettings = mappings.getSettings();
-        ElementParserSettings root = new ElementParserSettings("root");
-        root.setSubElementParsers(elementParserSettings);
-        this.documentParserStack.push(root);
+        this.cursor = new ParseCursor(plan);
+        this.classSlots = plan.getClassSlots();
+        setObjectBranch(objectBranch);
+    }
+
+    /**
+     * Prepare this document parser for a new document. The parser state is cleared while its buffers are kept.
+     *
+     * @param objectBranch Object branch to use for the next document.
+     */
+    public void reset(BranchContext objectBranch) {
+        this.cursor.reset();
+        this.textBuffer.clear();
+        setObjectBranch(objectBranch);
+        this.skippedElementCount = 0;
+        this.skippedCharacterCount = 0;
+        this.missingObjectCount = 0;
+        this.complete = false;
+    }
+
+    /**
+     * Mappings resolve their objects by slot index when the object branch is a {@link ClassSlotBranchContext}
+     * created for the plan of this parser.
+     */
+    private void setObjectBranch(BranchContext objectBranch) {
+        this.currentElementBranch = objectBranch;
+        this.slotBranch = objectBranch instanceof ClassSlotBranchContext && ((ClassSlotBranchContext) objectBranch).hasClassSlots(classSlots)
+                ? (ClassSlotBranchContext) objectBranch
+                : null;
+    }
+
+    /**
+     * Set a predicate that tells when the caller has got all data it needs from the document. The predicate
+     * is tested on the object branch after each processed start and end element. When it is satisfied, the parser
+     * stops reading and closes the input stream; the rest of the document is neither parsed nor validated.
+     * <p>
+     * For example, to only read the attributes of the top event element:
+     * {@code documentParser.setCompletionPredicate(objectBranch -> null != objectBranch.getInstance(Event.class));}
+     *
+     * @param completionPredicate predicate on the object branch, or null to always parse the whole document.
+     * @see ElementParserSettings#setTerminal(boolean)
+     */
+    public void setCompletionPredicate(Predicate<BranchContext> completionPredicate) {
+        this.completionPredicate = completionPredicate;
     }
 
-    void parseStartElement(XMLEvent xmlEvent) {
+    /**
+     * Set by the {@link XmlParser} for streaming parses. Without a consumer, emitted objects are dropped.
+     */
+    void setEmittedObjectConsumer(Consumer<Object> emittedObjectConsumer) {
+        this.emittedObjectConsumer = emittedObjectConsumer;
+    }
+
+    /**
+     * Set by the {@link XmlParser} before each parse. Per element debug logging and warnings about missing objects
+     * are only written in diagnostic mode; the switch is read once so the element path only tests a field.
+     *
+     * @see XmlParser.XmlParserBuilder#diagnostics(boolean)
+     */
+    void setDiagnostics(boolean diagnostics) {
+        this.diagnostics = diagnostics;
+        this.debugEnabled = diagnostics && log.isDebugEnabled();
+    }
+
+    /**
+     * Set by the {@link XmlParser} when a document is started. The listener is tested for null on the element path,
+     * no clock is read and nothing is counted without it.
+     *
+     * @param listener listener for this document, or null
+     * @param input    counts the bytes read by the StAX reader, null if there is no listener
+     */
+    void startDocument(ParseListener listener, CountingInputStream input) {
+        this.listener = listener;
+        this.input = input;
+        if (null != listener) {
+            listener.documentStarted();
+        }
+    }
+
+    /**
+     * Set by the {@link XmlParser} when the parse of a document has ended.
+     *
+     * @param resultClass class of the requested result or of the emitted objects
+     */
+    void endDocument(Class<?> resultClass) {
+        if (null != listener) {
+            ParseListener documentListener = listener;
+            this.listener = null;
+            documentListener.documentEnded(resultClass, input.getCount());
+        }
+        this.input = null;
+    }
+
+    /**
+     * @return true when a terminal element has ended or the completion predicate is satisfied.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Get the number of elements that were skipped without being processed, because they were part of the subtree of
+     * an unmapped element. Only counted when the {@link XmlParser} is built with skipping of unmapped elements.
+     *
+     * @return number of skipped elements, including the unmapped elements themselves.
+     */
+    public int getSkippedElementCount() {
+        return skippedElementCount;
+    }
+
+    /**
+     * Get the length of the skipped subtrees in the input, measured with the character offsets reported by the
+     * StAX reader. For single byte encodings and for ASCII content in UTF-8 this equals the number of skipped bytes.
+     * The start tag of each unmapped element is not included.
+     *
+     * @return number of skipped input characters, or 0 if the StAX implementation does not report offsets.
+     */
+    public long getSkippedCharacterCount() {
+        return skippedCharacterCount;
+    }
+
+    /**
+     * Get the number of attribute and element text mappings that were not applied because no object of the mapped
+     * class was on the object branch. A warning is logged for each of them only in diagnostic mode.
+     *
+     * @return number of mappings without a target object
+     */
+    public int getMissingObjectCount() {
+        return missingObjectCount;
+    }
+
+    boolean parseStartElement(XMLEvent xmlEvent) {
         StartElement startElement = xmlEvent.asStartElement();
-        String elementName = startElement.getName().getLocalPart();
-        log.debug("parseStartElement({})", elementName);
-        if (documentParserStack.isEmpty()) {
+        return parseStartElement(startElement.getName().getLocalPart(), startElementAttributes.wrap(startElement));
+    }
+
+    boolean parseStartElement(XMLStreamReader reader) {
+        return parseStartElement(reader.getLocalName(), streamReaderAttributes.wrap(reader));
+    }
+
+    /**
+     * @return true if the element is mapped, false if it has no parser settings in the current context.
+     */
+    private boolean parseStartElement(String elementName, AttributeSource attributes) {
+        if (debugEnabled) {
+            log.debug("parseStartElement({})", elementName);
+        }
+        if (cursor.isEmpty()) {
             throw new IllegalStateException("Event Parser must be initialized with initializeStartDocumentParser.");
         }
-        ElementParserSettings documentParserSettings = getParserSettings(elementName);
-        if (documentParserSettings != null) {
-            documentParserStack.push(documentParserSettings);
-            executeStartProcessor(startElement);
-            parseAttributes(startElement);
+        flushText();
+        CompiledElement element = getParserSettings(elementName);
+        if (element != null) {
+            cursor.push(element);
+            readAttributes(element, attributes);
+            if (null != listener) {
+                parseStartElementInstrumented(element);
+            } else {
+                executeStartProcessor(element);
+                parseAttributes(element);
+            }
+            testCompletion();
+            return true;
+        }
+        if (null != listener) {
+            unmappedElementName = elementName;
+            listener.elementsSkipped(elementName, 1);
+        }
+        return false;
+    }
+
+    private void parseStartElementInstrumented(CompiledElement element) {
+        String elementName = element.getElementName();
+        listener.elementStarted(elementName);
+        long start = System.nanoTime();
+        executeStartProcessor(element);
+        long processed = System.nanoTime();
+        listener.startProcessed(elementName, processed - start);
+        if (element.getAttributeMappings().length > 0) {
+            int applied = parseAttributes(element);
+            listener.attributesMapped(elementName, applied, System.nanoTime() - processed);
+        }
+    }
+
+    void subtreeSkipped(int elements, long startOffset, long endOffset) {
+        if (null != listener && elements > 1) {
+            listener.elementsSkipped(unmappedElementName, elements - 1);
+        }
+        skippedElementCount += elements;
+        if (startOffset >= 0 && endOffset > startOffset) {
+            skippedCharacterCount += endOffset - startOffset;
         }
     }
 
-    private void executeStartProcessor(StartElement startElement) {
-        Consumer<BranchContext> startProcessor = documentParserStack.peek().getElementStartProcessor();
+    private void readAttributes(CompiledElement element, AttributeSource attributes) {
+        if (element.getAttributeSlotCount() > 0) {
+            attributes.readAttributes(element, cursor.getAttributeValues());
+        }
+    }
+
+    private void executeStartProcessor(CompiledElement element) {
+        Consumer<BranchContext> startProcessor = element.getElementStartProcessor();
         if (startProcessor != null) {
             startProcessor.accept(this.currentElementBranch);
         } else {
-            BiConsumer<BranchContext, String> startProcessorBi = documentParserStack.peek().getElementStartProcessorBi();
-            String field = documentParserStack.peek().getElementStartProcessorBiAttributeName();
-            if (null != startProcessorBi && null != field) {
-                String attribute = getAttribute(field, startElement);
+            BiConsumer<BranchContext, String> startProcessorBi = element.getElementStartProcessorBi();
+            if (null != startProcessorBi) {
+                String attribute = cursor.getAttributeValues()[element.getElementStartProcessorBiSlot()];
                 startProcessorBi.accept(this.currentElementBranch, attribute);
             }
         }
     }
 
-    private ElementParserSettings getParserSettings(String elementName) {
-        ElementParserSettings documentParserSettings = null;
-        Map<String, ElementParserSettings> subElementParsers = documentParserStack.peek().getSubElementParsers();
-        if (null != subElementParsers && !subElementParsers.isEmpty()) {
-            documentParserSettings = subElementParsers.get(elementName);
-        }
-        if (null == documentParserSettings) {
-            log.debug("Element \"{}\" is skipped (by DocumentParserSettings) as a sub element of \"{}\".", elementName, documentParserStack.peek().getElementName());
-            return null;
+    private CompiledElement getParserSettings(String elementName) {
+        CompiledElement element = cursor.peek().getSubElement(elementName);
+        if (null == element && debugEnabled) {
+            log.debug("Element \"{}\" is skipped (by DocumentParserSettings) as a sub element of \"{}\".", elementName, cursor.peek().getElementName());
         }
-        return documentParserSettings;
+        return element;
     }
 
-    private void parseAttributes(StartElement startElement) {
-        List<AttributeMapping> mappings = documentParserStack.peek().getAttributeMappings();
-        if (null != mappings) {
-            for (AttributeMapping<?, ?> m : mappings) {
-                applyMapping(startElement, m);
+    /**
+     * @return the number of mappings applied to an object
+     */
+    private int parseAttributes(CompiledElement element) {
+        AttributeMapping<?, ?>[] mappings = element.getAttributeMappings();
+        int applied = 0;
+        for (int i = 0; i < mappings.length; i++) {
+            int classSlot = element.getAttributeMappingClassSlot(i);
+            Object obj = null != slotBranch && classSlot >= 0 ? slotBranch.getInstance(classSlot) : mappings[i].resolve(this.currentElementBranch);
+            if (null == obj) {
+                missingObject(mappings[i].getResultingFieldType(), null);
+            } else if (null != listener) {
+                long start = System.nanoTime();
+                applyAttributeMapping(mappings[i], obj, cursor.getAttributeValues(element, i));
+                listener.mappingApplied(element.getElementName(), element.getAttributeMappingName(i), System.nanoTime() - start);
+                applied++;
+            } else {
+                applyAttributeMapping(mappings[i], obj, cursor.getAttributeValues(element, i));
+                applied++;
             }
         }
+        return applied;
     }
 
-    private <T> void applyMapping(StartElement startElement, AttributeMapping<T, ?> m) {
-        if (!m.getKeys().isEmpty()) {
-            for (String key : m.getKeys()) {
-                m.setValue(key, getAttribute(key, startElement));
+    private <T, K> void applyAttributeMapping(AttributeMapping<T, K> mapping, Object obj, Map<String, String> values) {
+        mapping.applyTo((T) obj, this.currentElementBranch, values);
+    }
+
+    private void missingObject(Class<?> type, CharSequence data) {
+        missingObjectCount++;
+        if (diagnostics && log.isWarnEnabled()) {
+            String typeName = null == type ? "matching the predicate" : type.getName();
+            if (null == data) {
+                log.warn("No object of required type {} is created and the attributes of \"{}\" depending on that object are dismissed.", typeName, cursor.peek().getElementName());
+            } else {
+                log.warn("No object of required type {} is created and setting this content is depending on that object. Content data: \"{}\" will be dismissed.", typeName, trimForLogging(data));
             }
         }
-        m.apply(this.currentElementBranch, m);
     }
 
-    private static String getAttribute(String qName, StartElement startElement) {
-        Attribute idAttr = startElement.getAttributeByName(QName.valueOf(qName));
-        return null == idAttr ? null : idAttr.getValue();
+    void parseEndElement(XMLEvent xmlEvent) {
+        parseEndElement(xmlEvent.asEndElement().getName().getLocalPart());
     }
 
-    void parseEndElement(XMLEvent xmlEvent) {
-        String elementName = xmlEvent.asEndElement().getName().getLocalPart();
-        log.debug("parseEndElement({})", elementName);
+    void parseEndElement(String elementName) {
+        if (debugEnabled) {
+            log.debug("parseEndElement({})", elementName);
+        }
+        flushText();
 
-        if (elementName.equals(documentParserStack.peek().getElementName())) {
-            Consumer<BranchContext> endProcessor = documentParserStack.pop().getElementEndProcessor();
-            if (endProcessor != null) {
-                endProcessor.accept(this.currentElementBranch);
+        if (!cursor.isEmpty() && elementName.equals(cursor.peek().getElementName())) {
+            CompiledElement element = cursor.pop();
+            if (null != listener) {
+                long start = System.nanoTime();
+                executeEndProcessor(element);
+                listener.elementEnded(element.getElementName(), System.nanoTime() - start);
+            } else {
+                executeEndProcessor(element);
             }
+            if (element.isTerminal()) {
+                complete = true;
+            } else {
+                testCompletion();
+            }
+        }
+    }
+
+    private void executeEndProcessor(CompiledElement element) {
+        Consumer<BranchContext> endProcessor = element.getElementEndProcessor();
+        if (endProcessor != null) {
+            endProcessor.accept(this.currentElementBranch);
+        }
+        Function<BranchContext, ?> endEmitter = element.getElementEndEmitter();
+        if (endEmitter != null) {
+            emit(endEmitter.apply(this.currentElementBranch));
+        }
+    }
+
+    private void emit(Object emitted) {
+        if (null != emitted) {
+            if (null != emittedObjectConsumer) {
+                emittedObjectConsumer.accept(emitted);
+            } else if (debugEnabled) {
+                log.debug("No consumer for emitted object of type {}, it is dropped.", emitted.getClass().getName());
+            }
+        }
+    }
+
+    private void testCompletion() {
+        if (null != completionPredicate && completionPredicate.test(this.currentElementBranch)) {
+            complete = true;
         }
     }
 
@@ -135,31 +410,140 @@ public class DocumentParser {
         return currentElementBranch.pop(objectType);
     }
 
+    /**
+     * The engines test this before they read any text from the StAX reader, so text of elements without element
+     * text mappings, ignorable whitespace included, is never materialized.
+     *
+     * @return true if the current element has element text mappings.
+     */
+    boolean isTextNeeded() {
+        return !cursor.isEmpty() && cursor.peek().isTextNeeded();
+    }
+
+    /**
+     * Collect a chunk of text for the current element. The chunks of a text run are mapped together when the next
+     * start or end element is parsed, so the element text mappings are invoked once per text run.
+     */
     void parseCharacters(String data) {
-        String trimmedData = data.trim();
+        if (isTextNeeded()) {
+            textBuffer.append(data);
+        }
+    }
+
+    /**
+     * Collect a chunk of text directly from a character buffer, typically the one of the StAX reader.
+     * No String is created unless a mapping asks for one.
+     */
+    void parseCharacters(char[] chars, int start, int length) {
+        if (isTextNeeded()) {
+            textBuffer.append(chars, start, length);
+        }
+    }
+
+    private void flushText() {
+        if (!textBuffer.isEmpty()) {
+            parseText(textBuffer.trim(textView));
+            textBuffer.clear();
+        }
+    }
+
+    private void parseText(TextView trimmedData) {
         if (!trimmedData.isEmpty()) {
-            if (log.isDebugEnabled()) {
-                log.debug("parseCharacters({}) for {}", trimForLogging(trimmedData), documentParserStack.peek().getElementName());
+            if (debugEnabled) {
+                log.debug("parseCharacters({}) for {}", trimForLogging(trimmedData), cursor.peek().getElementName());
             }
-            List<ElementTextMapping> mappings = documentParserStack.peek().getElementTextMappings();
-            if (null != mappings) {
-                for (ElementTextMapping<?, ?> m : mappings) {
-                    applyElementTextMapping(trimmedData, m);
-                }
+            CompiledElement element = cursor.peek();
+            if (null != listener) {
+                long start = System.nanoTime();
+                int applied = applyElementTextMappings(element, trimmedData);
+                listener.textMapped(element.getElementName(), applied, System.nanoTime() - start);
+            } else {
+                applyElementTextMappings(element, trimmedData);
             }
         }
     }
 
-    private <T, K> void applyElementTextMapping(String data, ElementTextMapping<T, K> m) {
-        m.setValue(data);
-        if (log.isWarnEnabled() && null == this.currentElementBranch.getInstance(m.getType())) {
-            log.warn("No object of required type {} is created and setting this content is depending on that object. Content data: \"{}\" will be dismissed.", m.getType().getName(), trimForLogging(data));
+    /**
+     * @return the number of mappings applied to an object
+     */
+    private int applyElementTextMappings(CompiledElement element, CharSequence data) {
+        ElementTextMapping<?, ?>[] mappings = element.getElementTextMappings();
+        int applied = 0;
+        for (int i = 0; i < mappings.length; i++) {
+            int classSlot = element.getElementTextMappingClassSlot(i);
+            Object obj = null != slotBranch && classSlot >= 0 ? slotBranch.getInstance(classSlot) : this.currentElementBranch.getInstance(mappings[i].getType());
+            if (null == obj) {
+                missingObject(mappings[i].getType(), data);
+            } else if (null != listener) {
+                long start = System.nanoTime();
+                applyElementTextMapping(data, mappings[i], obj);
+                listener.mappingApplied(element.getElementName(), ParseListener.TEXT_MAPPING, System.nanoTime() - start);
+                applied++;
+            } else {
+                applyElementTextMapping(data, mappings[i], obj);
+                applied++;
+            }
         }
-        m.apply(this.currentElementBranch.getInstance(m.getType()));
+        return applied;
     }
 
-    private String trimForLogging(String data) {
+    private <T, K> void applyElementTextMapping(CharSequence data, ElementTextMapping<T, K> m, Object obj) {
+        m.apply((T) obj, data);
+    }
+
+    private String trimForLogging(CharSequence data) {
         final int MAX_LOG_OUTPUT = 100;
-        return data.substring(0, Math.min(data.length(), MAX_LOG_OUTPUT)) + (data.length() > MAX_LOG_OUTPUT ? "..." : "");
+        return data.subSequence(0, Math.min(data.length(), MAX_LOG_OUTPUT)) + (data.length() > MAX_LOG_OUTPUT ? "..." : "");
+    }
+
+    /**
+     * Attribute access directly on the cursor of an {@code XMLStreamReader}. The attributes are read by index
+     * so no {@code Attribute} or {@code QName} objects are created by the reader, and only the values of needed
+     * attributes are read. One instance is reused for all start elements of a document.
+     */
+    private static final class StreamReaderAttributes implements AttributeSource {
+        private XMLStreamReader reader;
+
+        StreamReaderAttributes wrap(XMLStreamReader reader) {
+            this.reader = reader;
+            return this;
+        }
+
+        @Override
+        public void readAttributes(CompiledElement element, String[] values) {
+            Arrays.fill(values, 0, element.getAttributeSlotCount(), null);
+            for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+                int slot = element.getAttributeSlot(reader.getAttributeLocalName(i), reader.getAttributeNamespace(i));
+                if (slot >= 0) {
+                    values[slot] = reader.getAttributeValue(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Attribute access on a {@code StartElement} event, iterating its attributes once.
+     * One instance is reused for all start elements of a document.
+     */
+    private static final class StartElementAttributes implements AttributeSource {
+        private StartElement startElement;
+
+        StartElementAttributes wrap(StartElement startElement) {
+            this.startElement = startElement;
+            return this;
+        }
+
+        @Override
+        public void readAttributes(CompiledElement element, String[] values) {
+            Arrays.fill(values, 0, element.getAttributeSlotCount(), null);
+            for (Iterator<?> attributes = startElement.getAttributes(); attributes.hasNext(); ) {
+                Attribute attribute = (Attribute) attributes.next();
+                QName name = attribute.getName();
+                int slot = element.getAttributeSlot(name.getLocalPart(), name.getNamespaceURI());
+                if (slot >= 0) {
+                    values[slot] = attribute.getValue();
+                }
+            }
+        }
     }
 }
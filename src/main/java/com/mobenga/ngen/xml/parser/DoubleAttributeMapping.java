@@ -0,0 +1,49 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Attribute mapping for a single attribute to a double field. The value is mapped and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setDecimalOdds(double)} setter:
+ * {@code new DoubleAttributeMapping<>(Selection.class, Selection::setDecimalOdds, "odds_dec")}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class DoubleAttributeMapping<T> extends SingleAttributeMapping<T, Double> {
+    private final ObjDoubleConsumer<T> setter;
+    private final ToDoubleFunction<CharSequence> mapper;
+
+    /**
+     * Constructs an attribute mapping parsing the value with {@link MappingUtil#parseDouble(CharSequence)}.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking a double.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public DoubleAttributeMapping(Class<T> resultingFieldType, ObjDoubleConsumer<T> setter, String field) {
+        this(resultingFieldType, setter, MappingUtil::parseDouble, field);
+    }
+
+    /**
+     * Constructs an attribute mapping.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking a double.
+     * @param mapper             Mapper method used to map the attribute value to a double.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public DoubleAttributeMapping(Class<T> resultingFieldType, ObjDoubleConsumer<T> setter, ToDoubleFunction<CharSequence> mapper, String field) {
+        super(resultingFieldType, field);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, String value) {
+        setter.accept(obj, mapper.applyAsDouble(value));
+    }
+}
@@ -0,0 +1,53 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Element text mapping of the trimmed text to a double field. The text is mapped from the text buffer of the
+ * document parser and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setPrice(double)} setter:
+ * {@code new DoubleElementTextMapping<>(Selection.class, Selection::setPrice)}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class DoubleElementTextMapping<T> extends PrimitiveElementTextMapping<T, Double> {
+    private final ObjDoubleConsumer<T> setter;
+    private final ToDoubleFunction<CharSequence> mapper;
+
+    /**
+     * Constructs an element text mapping parsing the text with {@link MappingUtil#parseDouble(CharSequence)}.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking a double.
+     */
+    public DoubleElementTextMapping(Class<T> type, ObjDoubleConsumer<T> setter) {
+        this(type, setter, MappingUtil::parseDouble);
+    }
+
+    /**
+     * Constructs an element text mapping.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking a double.
+     * @param mapper Mapper method used to map the text to a double. The text is only valid during the invocation.
+     */
+    public DoubleElementTextMapping(Class<T> type, ObjDoubleConsumer<T> setter, ToDoubleFunction<CharSequence> mapper) {
+        super(type);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, CharSequence value) {
+        setter.accept(obj, mapper.applyAsDouble(value));
+    }
+
+    @Override
+    Double map(CharSequence value) {
+        return mapper.applyAsDouble(value);
+    }
+}
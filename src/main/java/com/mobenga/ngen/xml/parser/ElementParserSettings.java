@@ -3,6 +3,7 @@ package com.mobenga.ngen.xml.parser;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Contains settings for one XML element to be utilized by the NGen XML Parser ({@code DocumentParser}).
@@ -23,6 +24,8 @@ public class ElementParserSettings {
     private BiConsumer<BranchContext, String> elementStartProcessorBi;
     private String elementStartProcessorBiAttributeName;
     private Consumer<BranchContext> elementEndProcessor;
+    private Function<BranchContext, ?> elementEndEmitter;
+    private boolean terminal;
 
     /**
      * Name of the XML Element that this setting must be applied to.
@@ -155,4 +158,37 @@ public class ElementParserSettings {
     public void setElementEndProcessor(Consumer<BranchContext> elementEndProcessor) {
         this.elementEndProcessor = elementEndProcessor;
     }
+
+    Function<BranchContext, ?> getElementEndEmitter() {
+        return elementEndEmitter;
+    }
+
+    /**
+     * The end emitter is a Lambda based callback that is invoked each time an end tag for this XML element is found,
+     * after the end processor. It returns the java object that is completed by this element, typically popped from the
+     * object branch, and that object is handed to the consumer of a streaming parse, see
+     * {@link XmlParser#parseXmlUnsafe(java.io.InputStream, DocumentParser, Class, java.util.function.Consumer)}.
+     * A null return value emits nothing. Since the parser does not keep a reference to the emitted object,
+     * it should not be added to any object that stays on the object branch.
+     *
+     * @param elementEndEmitter A Function returning the completed object. (See {@code java.util.function.Function})
+     */
+    public void setElementEndEmitter(Function<BranchContext, ?> elementEndEmitter) {
+        this.elementEndEmitter = elementEndEmitter;
+    }
+
+    boolean isTerminal() {
+        return terminal;
+    }
+
+    /**
+     * A terminal element is the last element the caller needs from the document. When the end tag of a terminal
+     * element has been processed, the parser stops reading and closes the input stream. The rest of the document
+     * is neither parsed nor validated, and end processors of the still open parent elements are not invoked.
+     *
+     * @param terminal true to stop parsing after the end tag of this element.
+     */
+    public void setTerminal(boolean terminal) {
+        this.terminal = terminal;
+    }
 }
@@ -0,0 +1,54 @@
+package com.mobenga.ngen.xml.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event with the statistics of one element name in one parsed document, committed by the
+ * {@link JfrParseListener} when the document has ended.
+ */
+@Name("com.mobenga.ngen.xml.ElementStatistics")
+@Label("XML Element Statistics")
+@Description("Elements, mappings and callback time of one element name in a parsed document")
+@Category({"NGen XML Parser"})
+@StackTrace(false)
+class ElementStatisticsEvent extends jdk.jfr.Event {
+    @Label("Element Name")
+    String elementName;
+
+    @Label("Elements")
+    int elements;
+
+    @Label("Skipped Elements")
+    int skippedElements;
+
+    @Label("Attribute Mappings")
+    int attributeMappings;
+
+    @Label("Text Mappings")
+    int textMappings;
+
+    @Label("Start Processor Time")
+    @Timespan
+    long startProcessorTime;
+
+    @Label("Mapper Time")
+    @Description("Time spent in the attribute and element text mappings")
+    @Timespan
+    long mapperTime;
+
+    @Label("End Processor Time")
+    @Description("Time spent in the end processor and end emitter")
+    @Timespan
+    long endProcessorTime;
+
+    @Label("Document Bytes")
+    @Description("Bytes read for the whole document")
+    @DataAmount
+    long documentBytes;
+}
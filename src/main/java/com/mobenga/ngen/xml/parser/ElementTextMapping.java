@@ -11,15 +11,19 @@ import java.util.function.Function;
  * <p>
  * Note that if the element text is used to set several different java object fields, several
  * ElementTextMappings can be specified each using a different mappers and setters.
+ * <p>
+ * An element text mapping is immutable and may be shared by several {@link DocumentParser}s running in parallel.
+ * <p>
+ * The text is trimmed before it is mapped. To map the text without creating a String from it, see
+ * {@link CharSequenceElementTextMapping}.
  *
  * @param <T> Map the field to an object of this class
  * @param <K> Type of the value to be mapped
  */
 public class ElementTextMapping<T, K> {
     private final Class<T> type;
-    private String value = "";
-    private BiConsumer<T, K> setter;
-    private Function<String, K> mapper;
+    private final BiConsumer<T, K> setter;
+    private final Function<String, K> mapper;
 
     /**
      * Constructs a element text mapping to set a single field to a single java object.
@@ -36,17 +40,30 @@ public class ElementTextMapping<T, K> {
         this.mapper = mapper;
     }
 
-    void apply(T obj) {
+    /**
+     * For subclasses that override both {@link #apply(Object, CharSequence)} and {@link #map(CharSequence)}.
+     */
+    ElementTextMapping(Class<T> type) {
+        this(type, null, null);
+    }
+
+    /**
+     * Map the text and set the result to the object.
+     *
+     * @param obj   the target object, or null if it is not in the object branch
+     * @param value the trimmed text. Only valid during this invocation.
+     */
+    void apply(T obj, CharSequence value) {
         if (null != obj) {
-            K mappedValue = mapper.apply(value);
-            setter.accept(obj, mappedValue);
+            setter.accept(obj, map(value));
         }
     }
-    Class<T> getType() {
-        return type;
+
+    K map(CharSequence value) {
+        return mapper.apply(value.toString());
     }
 
-    void setValue(String value) {
-        this.value = value;
+    Class<T> getType() {
+        return type;
     }
 }
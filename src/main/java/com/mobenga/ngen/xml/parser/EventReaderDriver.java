@@ -0,0 +1,63 @@
+package com.mobenga.ngen.xml.parser;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Drives a document parser with the StAX event iterator API.
+ *
+ * @see XmlParser.Engine#EVENT
+ */
+final class EventReaderDriver implements ParseDriver {
+    private final XMLEventReader eventReader;
+    private final DocumentParser documentParser;
+    private final boolean skipUnmappedElements;
+
+    EventReaderDriver(XMLEventReader eventReader, DocumentParser documentParser, boolean skipUnmappedElements) {
+        this.eventReader = eventReader;
+        this.documentParser = documentParser;
+        this.skipUnmappedElements = skipUnmappedElements;
+    }
+
+    @Override
+    public boolean step() throws XMLStreamException {
+        if (documentParser.isComplete() || !eventReader.hasNext()) {
+            return false;
+        }
+        XMLEvent xmlEvent = eventReader.nextEvent();
+
+        if (xmlEvent.isStartElement()) {
+            if (!documentParser.parseStartElement(xmlEvent) && skipUnmappedElements) {
+                skipSubtree(xmlEvent);
+            }
+        } else if (xmlEvent.isCharacters() && documentParser.isTextNeeded()) {
+            documentParser.parseCharacters(((Characters) xmlEvent).getData());
+        } else if (xmlEvent.isEndElement()) {
+            documentParser.parseEndElement(xmlEvent);
+        }
+        return true;
+    }
+
+    private void skipSubtree(XMLEvent startEvent) throws XMLStreamException {
+        int elements = 1;
+        int depth = 1;
+        XMLEvent xmlEvent = startEvent;
+        while (depth > 0) {
+            xmlEvent = eventReader.nextEvent();
+            if (xmlEvent.isStartElement()) {
+                elements++;
+                depth++;
+            } else if (xmlEvent.isEndElement()) {
+                depth--;
+            }
+        }
+        documentParser.subtreeSkipped(elements, startEvent.getLocation().getCharacterOffset(), xmlEvent.getLocation().getCharacterOffset());
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        eventReader.close();
+    }
+}
@@ -0,0 +1,214 @@
+package com.mobenga.ngen.xml.parser;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Drives several document parsers with the tokens of one StAX reader, so a document is read and tokenized once
+ * for all of them. Each document parser skips the subtrees of its own unmapped elements: while it is inside such
+ * a subtree it is not dispatched to, while the others still are. A document parser that is complete is not
+ * dispatched to anymore, and reading stops when all of them are complete.
+ *
+ * @see XmlParser#parseXmlUnsafe(java.io.InputStream, java.util.List, java.util.List)
+ */
+abstract class FanOutDriver implements ParseDriver {
+    private final DocumentParser[] documentParsers;
+    private final boolean skipUnmappedElements;
+    private final int[] skipDepths;
+    private final int[] skippedElements;
+    private final long[] skipStartOffsets;
+    private int active;
+
+    private FanOutDriver(DocumentParser[] documentParsers, boolean skipUnmappedElements) {
+        this.documentParsers = documentParsers.clone();
+        this.skipUnmappedElements = skipUnmappedElements;
+        this.skipDepths = new int[documentParsers.length];
+        this.skippedElements = new int[documentParsers.length];
+        this.skipStartOffsets = new long[documentParsers.length];
+        this.active = documentParsers.length;
+    }
+
+    static FanOutDriver forStreamReader(XMLStreamReader reader, DocumentParser[] documentParsers, boolean skipUnmappedElements) {
+        return new StreamReaderFanOut(reader, documentParsers, skipUnmappedElements);
+    }
+
+    static FanOutDriver forEventReader(XMLEventReader eventReader, DocumentParser[] documentParsers, boolean skipUnmappedElements) {
+        return new EventReaderFanOut(eventReader, documentParsers, skipUnmappedElements);
+    }
+
+    /**
+     * Read the next token from the reader.
+     *
+     * @return the {@link XMLStreamConstants} type of the token, or -1 at the end of the document
+     */
+    abstract int next() throws XMLStreamException;
+
+    abstract boolean parseStartElement(DocumentParser documentParser);
+
+    abstract void parseCharacters(DocumentParser documentParser);
+
+    abstract void parseEndElement(DocumentParser documentParser);
+
+    abstract long getCharacterOffset();
+
+    @Override
+    public boolean step() throws XMLStreamException {
+        if (active == 0) {
+            return false;
+        }
+        int eventType = next();
+        if (eventType < 0) {
+            return false;
+        }
+        switch (eventType) {
+            case XMLStreamConstants.START_ELEMENT:
+                startElement();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                for (int i = 0; i < active; i++) {
+                    if (skipDepths[i] == 0 && documentParsers[i].isTextNeeded()) {
+                        parseCharacters(documentParsers[i]);
+                    }
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                endElement();
+                break;
+            default:
+                break;
+        }
+        removeCompleted();
+        return active > 0;
+    }
+
+    private void startElement() {
+        for (int i = 0; i < active; i++) {
+            if (skipDepths[i] > 0) {
+                skipDepths[i]++;
+                skippedElements[i]++;
+            } else if (!parseStartElement(documentParsers[i]) && skipUnmappedElements) {
+                skipDepths[i] = 1;
+                skippedElements[i] = 1;
+                skipStartOffsets[i] = getCharacterOffset();
+            }
+        }
+    }
+
+    private void endElement() {
+        for (int i = 0; i < active; i++) {
+            if (skipDepths[i] == 0) {
+                parseEndElement(documentParsers[i]);
+            } else if (--skipDepths[i] == 0) {
+                documentParsers[i].subtreeSkipped(skippedElements[i], skipStartOffsets[i], getCharacterOffset());
+            }
+        }
+    }
+
+    /**
+     * Move the completed document parsers behind the active ones, keeping the order of the active ones.
+     */
+    private void removeCompleted() {
+        int target = 0;
+        for (int i = 0; i < active; i++) {
+            if (!documentParsers[i].isComplete()) {
+                if (target != i) {
+                    documentParsers[target] = documentParsers[i];
+                    skipDepths[target] = skipDepths[i];
+                    skippedElements[target] = skippedElements[i];
+                    skipStartOffsets[target] = skipStartOffsets[i];
+                }
+                target++;
+            }
+        }
+        active = target;
+    }
+
+    private static final class StreamReaderFanOut extends FanOutDriver {
+        private final XMLStreamReader reader;
+
+        private StreamReaderFanOut(XMLStreamReader reader, DocumentParser[] documentParsers, boolean skipUnmappedElements) {
+            super(documentParsers, skipUnmappedElements);
+            this.reader = reader;
+        }
+
+        @Override
+        int next() throws XMLStreamException {
+            return reader.hasNext() ? reader.next() : -1;
+        }
+
+        @Override
+        boolean parseStartElement(DocumentParser documentParser) {
+            return documentParser.parseStartElement(reader);
+        }
+
+        @Override
+        void parseCharacters(DocumentParser documentParser) {
+            documentParser.parseCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+        }
+
+        @Override
+        void parseEndElement(DocumentParser documentParser) {
+            documentParser.parseEndElement(reader.getLocalName());
+        }
+
+        @Override
+        long getCharacterOffset() {
+            return reader.getLocation().getCharacterOffset();
+        }
+
+        @Override
+        public void close() throws XMLStreamException {
+            reader.close();
+        }
+    }
+
+    private static final class EventReaderFanOut extends FanOutDriver {
+        private final XMLEventReader eventReader;
+        private XMLEvent xmlEvent;
+
+        private EventReaderFanOut(XMLEventReader eventReader, DocumentParser[] documentParsers, boolean skipUnmappedElements) {
+            super(documentParsers, skipUnmappedElements);
+            this.eventReader = eventReader;
+        }
+
+        @Override
+        int next() throws XMLStreamException {
+            if (!eventReader.hasNext()) {
+                return -1;
+            }
+            xmlEvent = eventReader.nextEvent();
+            return xmlEvent.getEventType();
+        }
+
+        @Override
+        boolean parseStartElement(DocumentParser documentParser) {
+            return documentParser.parseStartElement(xmlEvent);
+        }
+
+        @Override
+        void parseCharacters(DocumentParser documentParser) {
+            documentParser.parseCharacters(((Characters) xmlEvent).getData());
+        }
+
+        @Override
+        void parseEndElement(DocumentParser documentParser) {
+            documentParser.parseEndElement(xmlEvent);
+        }
+
+        @Override
+        long getCharacterOffset() {
+            return xmlEvent.getLocation().getCharacterOffset();
+        }
+
+        @Override
+        public void close() throws XMLStreamException {
+            eventReader.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Attribute mapping for a single attribute to an int field. The value is mapped and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setOrder(int)} setter:
+ * {@code new IntAttributeMapping<>(Selection.class, Selection::setOrder, "order")}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class IntAttributeMapping<T> extends SingleAttributeMapping<T, Integer> {
+    private final ObjIntConsumer<T> setter;
+    private final ToIntFunction<CharSequence> mapper;
+
+    /**
+     * Constructs an attribute mapping parsing the value with {@link MappingUtil#parseInt(CharSequence)}.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking an int.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public IntAttributeMapping(Class<T> resultingFieldType, ObjIntConsumer<T> setter, String field) {
+        this(resultingFieldType, setter, MappingUtil::parseInt, field);
+    }
+
+    /**
+     * Constructs an attribute mapping.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking an int.
+     * @param mapper             Mapper method used to map the attribute value to an int.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public IntAttributeMapping(Class<T> resultingFieldType, ObjIntConsumer<T> setter, ToIntFunction<CharSequence> mapper, String field) {
+        super(resultingFieldType, field);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, String value) {
+        setter.accept(obj, mapper.applyAsInt(value));
+    }
+}
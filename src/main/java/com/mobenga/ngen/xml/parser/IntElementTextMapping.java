@@ -0,0 +1,53 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Element text mapping of the trimmed text to an int field. The text is mapped from the text buffer of the
+ * document parser and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setRank(int)} setter:
+ * {@code new IntElementTextMapping<>(Selection.class, Selection::setRank)}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class IntElementTextMapping<T> extends PrimitiveElementTextMapping<T, Integer> {
+    private final ObjIntConsumer<T> setter;
+    private final ToIntFunction<CharSequence> mapper;
+
+    /**
+     * Constructs an element text mapping parsing the text with {@link MappingUtil#parseInt(CharSequence)}.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking an int.
+     */
+    public IntElementTextMapping(Class<T> type, ObjIntConsumer<T> setter) {
+        this(type, setter, MappingUtil::parseInt);
+    }
+
+    /**
+     * Constructs an element text mapping.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking an int.
+     * @param mapper Mapper method used to map the text to an int. The text is only valid during the invocation.
+     */
+    public IntElementTextMapping(Class<T> type, ObjIntConsumer<T> setter, ToIntFunction<CharSequence> mapper) {
+        super(type);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, CharSequence value) {
+        setter.accept(obj, mapper.applyAsInt(value));
+    }
+
+    @Override
+    Integer map(CharSequence value) {
+        return mapper.applyAsInt(value);
+    }
+}
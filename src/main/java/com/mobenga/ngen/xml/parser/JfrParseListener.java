@@ -0,0 +1,219 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ParseListener} that reports to the flight recorder:
+ * <ul>
+ * <li>{@code com.mobenga.ngen.xml.DocumentParse} spanning the parse of each document, with the bytes read, the
+ * number of elements and the result class.</li>
+ * <li>{@code com.mobenga.ngen.xml.ElementStatistics} per element name and document, with the number of elements,
+ * applied mappings and the time spent in processors and mappers.</li>
+ * <li>{@code com.mobenga.ngen.xml.SlowCallback} for each start processor, end processor or mapping invocation that
+ * takes longer than the threshold, tagged with the element path, to find the slow lambda in a mapping tree.</li>
+ * </ul>
+ * Use {@link #create()} or {@link #factory(Duration)} as listener factory. They only create a listener while
+ * one of the events is enabled in a running recording, so the parser is not instrumented at all otherwise:
+ * {@code XmlParser.builder().parseListener(JfrParseListener::create).build()}
+ * <p>
+ * Requires a JVM with the {@code jdk.jfr} API, i.e. Java 8u262 or later.
+ */
+public final class JfrParseListener implements ParseListener {
+    /**
+     * The slow callback threshold of {@link #create()}.
+     */
+    public static final Duration DEFAULT_SLOW_CALLBACK_THRESHOLD = Duration.ofMillis(10);
+
+    private static final String START_PROCESSOR = "start processor";
+    private static final String END_PROCESSOR = "end processor";
+
+    private final long slowCallbackThreshold;
+    private final boolean elementStatisticsEnabled;
+    private final boolean slowCallbackEnabled;
+    private final DocumentParseEvent documentEvent;
+    private final Map<String, ElementStatistics> statistics = new HashMap<>();
+    private ElementStatistics current;
+    private String[] path = new String[16];
+    private int depth;
+    private int elements;
+    private int skippedElements;
+
+    private JfrParseListener(long slowCallbackThreshold, boolean documentParseEnabled, boolean elementStatisticsEnabled, boolean slowCallbackEnabled) {
+        this.slowCallbackThreshold = slowCallbackThreshold;
+        this.elementStatisticsEnabled = elementStatisticsEnabled;
+        this.slowCallbackEnabled = slowCallbackEnabled;
+        this.documentEvent = documentParseEnabled ? new DocumentParseEvent() : null;
+    }
+
+    /**
+     * @return a new listener with the {@link #DEFAULT_SLOW_CALLBACK_THRESHOLD}, or null if none of the events is
+     * enabled in any recording
+     */
+    public static ParseListener create() {
+        return create(DEFAULT_SLOW_CALLBACK_THRESHOLD.toNanos());
+    }
+
+    /**
+     * @param slowCallbackThreshold callbacks taking at least this long are reported as slow callback events
+     * @return a listener factory for {@link XmlParser.XmlParserBuilder#parseListener(Supplier)}
+     */
+    public static Supplier<ParseListener> factory(Duration slowCallbackThreshold) {
+        long threshold = slowCallbackThreshold.toNanos();
+        return () -> create(threshold);
+    }
+
+    private static ParseListener create(long slowCallbackThreshold) {
+        boolean documentParseEnabled = new DocumentParseEvent().isEnabled();
+        boolean elementStatisticsEnabled = new ElementStatisticsEvent().isEnabled();
+        boolean slowCallbackEnabled = new SlowCallbackEvent().isEnabled();
+        if (documentParseEnabled || elementStatisticsEnabled || slowCallbackEnabled) {
+            return new JfrParseListener(slowCallbackThreshold, documentParseEnabled, elementStatisticsEnabled, slowCallbackEnabled);
+        }
+        return null;
+    }
+
+    @Override
+    public void documentStarted() {
+        if (null != documentEvent) {
+            documentEvent.begin();
+        }
+    }
+
+    @Override
+    public void elementStarted(String elementName) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth++] = elementName;
+        elements++;
+        if (elementStatisticsEnabled) {
+            statistics(elementName).elements++;
+        }
+    }
+
+    @Override
+    public void startProcessed(String elementName, long nanos) {
+        if (elementStatisticsEnabled) {
+            statistics(elementName).startProcessorTime += nanos;
+        }
+        testSlowCallback(START_PROCESSOR, nanos);
+    }
+
+    @Override
+    public void mappingApplied(String elementName, String mappingName, long nanos) {
+        testSlowCallback(mappingName, nanos);
+    }
+
+    @Override
+    public void attributesMapped(String elementName, int mappings, long nanos) {
+        if (elementStatisticsEnabled) {
+            ElementStatistics element = statistics(elementName);
+            element.attributeMappings += mappings;
+            element.mapperTime += nanos;
+        }
+    }
+
+    @Override
+    public void textMapped(String elementName, int mappings, long nanos) {
+        if (elementStatisticsEnabled) {
+            ElementStatistics element = statistics(elementName);
+            element.textMappings += mappings;
+            element.mapperTime += nanos;
+        }
+    }
+
+    @Override
+    public void elementEnded(String elementName, long nanos) {
+        if (elementStatisticsEnabled) {
+            statistics(elementName).endProcessorTime += nanos;
+        }
+        testSlowCallback(END_PROCESSOR, nanos);
+        if (depth > 0) {
+            path[--depth] = null;
+        }
+    }
+
+    @Override
+    public void elementsSkipped(String elementName, int elements) {
+        skippedElements += elements;
+        if (elementStatisticsEnabled) {
+            statistics(elementName).skippedElements += elements;
+        }
+    }
+
+    @Override
+    public void documentEnded(Class<?> resultClass, long bytesRead) {
+        if (null != documentEvent) {
+            documentEvent.end();
+            documentEvent.bytesRead = bytesRead;
+            documentEvent.elements = elements;
+            documentEvent.skippedElements = skippedElements;
+            documentEvent.resultClass = resultClass;
+            documentEvent.commit();
+        }
+        for (ElementStatistics element : statistics.values()) {
+            ElementStatisticsEvent event = new ElementStatisticsEvent();
+            event.elementName = element.elementName;
+            event.elements = element.elements;
+            event.skippedElements = element.skippedElements;
+            event.attributeMappings = element.attributeMappings;
+            event.textMappings = element.textMappings;
+            event.startProcessorTime = element.startProcessorTime;
+            event.mapperTime = element.mapperTime;
+            event.endProcessorTime = element.endProcessorTime;
+            event.documentBytes = bytesRead;
+            event.commit();
+        }
+        statistics.clear();
+        current = null;
+    }
+
+    private void testSlowCallback(String callback, long nanos) {
+        if (slowCallbackEnabled && nanos >= slowCallbackThreshold) {
+            SlowCallbackEvent event = new SlowCallbackEvent();
+            event.elementPath = elementPath();
+            event.callback = callback;
+            event.callbackTime = nanos;
+            event.commit();
+        }
+    }
+
+    private String elementPath() {
+        StringBuilder elementPath = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            elementPath.append('/').append(path[i]);
+        }
+        return elementPath.toString();
+    }
+
+    /**
+     * Consecutive callbacks are mostly for the same element, so the last statistics are checked first.
+     */
+    private ElementStatistics statistics(String elementName) {
+        ElementStatistics element = current;
+        if (null == element || !element.elementName.equals(elementName)) {
+            element = statistics.computeIfAbsent(elementName, ElementStatistics::new);
+            current = element;
+        }
+        return element;
+    }
+
+    private static final class ElementStatistics {
+        private final String elementName;
+        private int elements;
+        private int skippedElements;
+        private int attributeMappings;
+        private int textMappings;
+        private long startProcessorTime;
+        private long mapperTime;
+        private long endProcessorTime;
+
+        private ElementStatistics(String elementName) {
+            this.elementName = elementName;
+        }
+    }
+}
@@ -3,9 +3,7 @@ package com.mobenga.ngen.xml.parser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 import java.util.function.Predicate;
 
 /**
@@ -13,43 +11,70 @@ import java.util.function.Predicate;
  * If this BranchContext is used, it is the responsibility of the AttributeMapping to provide the Predicate by which to get
  * needed instance
  * ListBranchContext guarantees that objects are extracted by LIFO principle
+ * <p>
+ * The objects are kept in an array stack that is searched from the top, and the positions of the objects are indexed
+ * per class so lookups by class do not test every object. Removing the top object is O(1); an object removed below
+ * the top leaves a hole that is compacted when the stack is full. Lookups and removals do not allocate.
+ * A null object is kept on the stack like any other object; it is only found by predicates that accept null.
  */
 public class ListBranchContext implements BranchContext {
     private static final Logger log = LoggerFactory.getLogger(ListBranchContext.class);
-    private List<Object> objectContext = new ArrayList<>();
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] NO_POSITIONS = new int[0];
+    /**
+     * Stands for a null object on the stack, since null marks the holes.
+     */
+    private static final Object NULL_OBJECT = new Object();
+
+    private Object[] stack = new Object[INITIAL_CAPACITY];
+    private int size;
+    private int holes;
+
+    /**
+     * Per-class index: the distinct classes of the objects on the stack, and for each class the ascending stack
+     * positions of its objects. A class stays in the index with no positions when all its objects are removed.
+     */
+    private Class<?>[] classes = new Class<?>[4];
+    private int[][] positions = new int[4][];
+    private int[] positionCounts = new int[4];
+    private int classCount;
 
     public ListBranchContext() {
     }
 
     @Override
     public <T> T getInstance(Class<T> objType) {
-        return this.getInstance(objType::isInstance);
+        int position = indexOf(objType);
+        return position < 0 ? null : (T) objectAt(position);
     }
 
     @Override
     public <T> T getInstance(Predicate<Object> predicate) {
-        List<Object> reversed = new ArrayList<>(objectContext);
-        Collections.reverse(reversed);
-        return (T) reversed.stream()
-                .filter(predicate)
-                .findFirst()
-                .orElse(null);
+        int position = indexOf(predicate);
+        return position < 0 ? null : (T) objectAt(position);
     }
 
     @Deprecated
     @Override
     public <T> T pop(Class<T> objType) {
-        return this.pop(objType::isInstance);
+        int position = indexOf(objType);
+        if (position < 0) {
+            if (log.isWarnEnabled()) {
+                log.warn("Object of type {} did not exist in the BranchContext during pop.", objType.getName());
+            }
+            return null;
+        }
+        return (T) remove(position);
     }
 
     @Override
     public <T> T pop(Predicate<Object> predicate) {
-        T obj = this.getInstance(predicate);
-        objectContext.remove(obj);
-        if (log.isWarnEnabled() && null == obj) {
+        int position = indexOf(predicate);
+        if (position < 0) {
             log.warn("Object did not exist in the BranchContext during pop by predicate.");
+            return null;
         }
-        return obj;
+        return (T) remove(position);
     }
 
     @Override
@@ -59,6 +84,131 @@ public class ListBranchContext implements BranchContext {
 
     @Override
     public void put(Object object) {
-        objectContext.add(object);
+        if (size == stack.length) {
+            if (holes > 0) {
+                compact();
+            } else {
+                stack = Arrays.copyOf(stack, size * 2);
+            }
+        }
+        int position = size++;
+        if (null == object) {
+            stack[position] = NULL_OBJECT;
+        } else {
+            stack[position] = object;
+            addPosition(classIndex(object.getClass()), position);
+        }
+    }
+
+    private Object objectAt(int position) {
+        Object obj = stack[position];
+        return NULL_OBJECT == obj ? null : obj;
+    }
+
+    /**
+     * @return the position of the top most object that is an instance of the class, or -1
+     */
+    private int indexOf(Class<?> objType) {
+        if (size > 0 && NULL_OBJECT != stack[size - 1] && objType.isInstance(stack[size - 1])) {
+            return size - 1;
+        }
+        int top = -1;
+        for (int i = 0; i < classCount; i++) {
+            int count = positionCounts[i];
+            if (count > 0 && positions[i][count - 1] > top && objType.isAssignableFrom(classes[i])) {
+                top = positions[i][count - 1];
+            }
+        }
+        return top;
+    }
+
+    /**
+     * @return the position of the top most object matching the predicate, or -1
+     */
+    private int indexOf(Predicate<Object> predicate) {
+        for (int position = size - 1; position >= 0; position--) {
+            Object obj = stack[position];
+            if (null != obj && predicate.test(NULL_OBJECT == obj ? null : obj)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private Object remove(int position) {
+        Object obj = objectAt(position);
+        if (null != obj) {
+            removePosition(classIndex(obj.getClass()), position);
+        }
+        stack[position] = null;
+        if (position == size - 1) {
+            size--;
+            while (size > 0 && null == stack[size - 1]) {
+                size--;
+                holes--;
+            }
+        } else {
+            holes++;
+        }
+        return obj;
+    }
+
+    /**
+     * Move the objects down over the holes and rebuild the positions of the class index.
+     */
+    private void compact() {
+        Arrays.fill(positionCounts, 0, classCount, 0);
+        int target = 0;
+        for (int position = 0; position < size; position++) {
+            Object obj = stack[position];
+            if (null != obj) {
+                stack[target] = obj;
+                if (NULL_OBJECT != obj) {
+                    addPosition(classIndex(obj.getClass()), target);
+                }
+                target++;
+            }
+        }
+        Arrays.fill(stack, target, size, null);
+        size = target;
+        holes = 0;
+    }
+
+    private int classIndex(Class<?> type) {
+        for (int i = 0; i < classCount; i++) {
+            if (classes[i] == type) {
+                return i;
+            }
+        }
+        if (classCount == classes.length) {
+            classes = Arrays.copyOf(classes, classCount * 2);
+            positions = Arrays.copyOf(positions, classCount * 2);
+            positionCounts = Arrays.copyOf(positionCounts, classCount * 2);
+        }
+        classes[classCount] = type;
+        positions[classCount] = NO_POSITIONS;
+        return classCount++;
+    }
+
+    private void addPosition(int classIndex, int position) {
+        int count = positionCounts[classIndex];
+        if (count == positions[classIndex].length) {
+            positions[classIndex] = Arrays.copyOf(positions[classIndex], Math.max(4, count * 2));
+        }
+        positions[classIndex][count] = position;
+        positionCounts[classIndex] = count + 1;
+    }
+
+    private void removePosition(int classIndex, int position) {
+        int[] classPositions = positions[classIndex];
+        int count = positionCounts[classIndex];
+        // The removed object is nearly always the top most of its class
+        for (int i = count - 1; i >= 0; i--) {
+            if (classPositions[i] == position) {
+                System.arraycopy(classPositions, i + 1, classPositions, i, count - i - 1);
+                positionCounts[classIndex] = count - 1;
+                return;
+            }
+        }
     }
 }
@@ -0,0 +1,49 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Attribute mapping for a single attribute to a long field. The value is mapped and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setStartTime(long)} setter:
+ * {@code new LongAttributeMapping<>(Selection.class, Selection::setStartTime, "start")}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class LongAttributeMapping<T> extends SingleAttributeMapping<T, Long> {
+    private final ObjLongConsumer<T> setter;
+    private final ToLongFunction<CharSequence> mapper;
+
+    /**
+     * Constructs an attribute mapping parsing the value with {@link MappingUtil#parseLong(CharSequence)}.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking a long.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public LongAttributeMapping(Class<T> resultingFieldType, ObjLongConsumer<T> setter, String field) {
+        this(resultingFieldType, setter, MappingUtil::parseLong, field);
+    }
+
+    /**
+     * Constructs an attribute mapping.
+     *
+     * @param resultingFieldType Map the field to an object of this class
+     * @param setter             Setter method on the class taking a long.
+     * @param mapper             Mapper method used to map the attribute value to a long.
+     * @param field              Attribute name whose value is mapped.
+     */
+    public LongAttributeMapping(Class<T> resultingFieldType, ObjLongConsumer<T> setter, ToLongFunction<CharSequence> mapper, String field) {
+        super(resultingFieldType, field);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, String value) {
+        setter.accept(obj, mapper.applyAsLong(value));
+    }
+}
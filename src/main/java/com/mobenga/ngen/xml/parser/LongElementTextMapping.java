@@ -0,0 +1,53 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Element text mapping of the trimmed text to a long field. The text is mapped from the text buffer of the
+ * document parser and set without boxing.
+ * <p>
+ * For example, for a class {@code Selection} with a {@code setVolume(long)} setter:
+ * {@code new LongElementTextMapping<>(Selection.class, Selection::setVolume)}
+ *
+ * @param <T> Map the field to an object of this class
+ */
+public class LongElementTextMapping<T> extends PrimitiveElementTextMapping<T, Long> {
+    private final ObjLongConsumer<T> setter;
+    private final ToLongFunction<CharSequence> mapper;
+
+    /**
+     * Constructs an element text mapping parsing the text with {@link MappingUtil#parseLong(CharSequence)}.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking a long.
+     */
+    public LongElementTextMapping(Class<T> type, ObjLongConsumer<T> setter) {
+        this(type, setter, MappingUtil::parseLong);
+    }
+
+    /**
+     * Constructs an element text mapping.
+     *
+     * @param type   Map the field to an object of this class
+     * @param setter Setter method on the class taking a long.
+     * @param mapper Mapper method used to map the text to a long. The text is only valid during the invocation.
+     */
+    public LongElementTextMapping(Class<T> type, ObjLongConsumer<T> setter, ToLongFunction<CharSequence> mapper) {
+        super(type);
+        this.setter = setter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    void applyValue(T obj, CharSequence value) {
+        setter.accept(obj, mapper.applyAsLong(value));
+    }
+
+    @Override
+    Long map(CharSequence value) {
+        return mapper.applyAsLong(value);
+    }
+}
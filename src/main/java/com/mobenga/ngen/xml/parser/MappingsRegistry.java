@@ -0,0 +1,135 @@
+package com.mobenga.ngen.xml.parser;
+
+import javax.xml.namespace.QName;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable registry of compiled mappings keyed by the name of their top element, used to parse documents of
+ * many types received on one channel. The {@link XmlParser} reads the root element of a document once, looks up
+ * the plan for it and continues parsing with that plan, without buffering or re-reading the head of the document:
+ * <pre>
+ *     MappingsRegistry registry = MappingsRegistry.builder()
+ *             .register(new EventMappings(), Event.class)
+ *             .register("urn:prices", new PriceMappings(), Prices.class)
+ *             .build();
+ *     ...
+ *     Object result = xmlParser.parseXmlUnsafe(xmlStream, registry);
+ * </pre>
+ * Mappings registered without a namespace match a root element in any namespace; a registration for the namespace
+ * of the root element takes precedence. A lookup is a hash lookup regardless of the number of registered mappings.
+ * The registry may be shared by any number of threads.
+ */
+public final class MappingsRegistry {
+    private final Map<QName, Registration> registrations;
+
+    private MappingsRegistry(Map<QName, Registration> registrations) {
+        this.registrations = new HashMap<>(registrations);
+    }
+
+    public static MappingsRegistryBuilder builder() {
+        return new MappingsRegistryBuilder();
+    }
+
+    /**
+     * Find the registration for a root element.
+     *
+     * @param localName local name of the root element
+     * @param namespace namespace URI of the root element, empty or null for no namespace
+     * @return the registration, or null if no mappings are registered for the element
+     */
+    Registration lookup(String localName, String namespace) {
+        if (null != namespace && !namespace.isEmpty()) {
+            Registration registration = registrations.get(new QName(namespace, localName));
+            if (null != registration) {
+                return registration;
+            }
+        }
+        return registrations.get(new QName(localName));
+    }
+
+    /**
+     * @return the number of registered mappings
+     */
+    public int size() {
+        return registrations.size();
+    }
+
+    /**
+     * A compiled plan with the class of the result of its documents.
+     */
+    static final class Registration {
+        private final CompiledMappings plan;
+        private final Class<?> resultClass;
+
+        private Registration(CompiledMappings plan, Class<?> resultClass) {
+            this.plan = plan;
+            this.resultClass = resultClass;
+        }
+
+        CompiledMappings getPlan() {
+            return plan;
+        }
+
+        Class<?> getResultClass() {
+            return resultClass;
+        }
+    }
+
+    public static class MappingsRegistryBuilder {
+        private final Map<QName, Registration> registrations = new HashMap<>();
+
+        private MappingsRegistryBuilder() {
+        }
+
+        /**
+         * Register mappings for a root element in any namespace.
+         *
+         * @param mappings    mappings, compiled when registered
+         * @param resultClass Class for the required result type of the documents
+         * @return this builder
+         * @throws IllegalArgumentException if mappings are already registered for the top element name.
+         */
+        public MappingsRegistryBuilder register(Mappings mappings, Class<?> resultClass) {
+            return register(null, CompiledMappings.compile(mappings), resultClass);
+        }
+
+        /**
+         * Register mappings for a root element in a namespace.
+         *
+         * @param namespace   namespace URI of the root element, null or empty for any namespace
+         * @param mappings    mappings, compiled when registered
+         * @param resultClass Class for the required result type of the documents
+         * @return this builder
+         * @throws IllegalArgumentException if mappings are already registered for the top element name and namespace.
+         */
+        public MappingsRegistryBuilder register(String namespace, Mappings mappings, Class<?> resultClass) {
+            return register(namespace, CompiledMappings.compile(mappings), resultClass);
+        }
+
+        /**
+         * Register a precompiled plan for a root element in a namespace.
+         *
+         * @param namespace   namespace URI of the root element, null or empty for any namespace
+         * @param plan        compiled mappings
+         * @param resultClass Class for the required result type of the documents
+         * @return this builder
+         * @throws IllegalArgumentException if mappings are already registered for the top element name and namespace.
+         */
+        public MappingsRegistryBuilder register(String namespace, CompiledMappings plan, Class<?> resultClass) {
+            if (null == plan || null == resultClass) {
+                throw new IllegalArgumentException("A plan and a result class are required.");
+            }
+            QName name = new QName(null == namespace ? "" : namespace, plan.getTopElementName());
+            if (registrations.containsKey(name)) {
+                throw new IllegalArgumentException("Mappings are already registered for the root element " + name);
+            }
+            registrations.put(name, new Registration(plan, resultClass));
+            return this;
+        }
+
+        public MappingsRegistry build() {
+            return new MappingsRegistry(registrations);
+        }
+    }
+}
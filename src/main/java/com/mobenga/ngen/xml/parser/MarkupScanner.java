@@ -0,0 +1,386 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A byte level scanner that follows the element structure of an XML document without decoding or tokenizing it.
+ * It is fed one byte at a time and reports when a start tag, end tag or empty element tag has been completed,
+ * keeping track of the element depth. Comments, processing instructions, CDATA sections and quoted attribute
+ * values are passed over, so markup characters inside them do not affect the depth.
+ * <p>
+ * The scanner relies on all markup characters being single ASCII bytes, which holds for UTF-8, ISO-8859-* and
+ * other ASCII compatible encodings, but not for UTF-16. Document type declarations are passed over by matching
+ * brackets and quotes; comments inside an internal DTD subset are not recognized.
+ * <p>
+ * The scanner keeps its state between invocations, so a document may be fed in arbitrary chunks.
+ * <p>
+ * A scanner that checks the nesting keeps the names of the open elements, and reports an end tag that does not
+ * match the open element, or that has no open element, as {@link #UNBALANCED_TAG}. Without the check the scanner
+ * only counts the depth, and relies on the XML reader to report malformed documents.
+ */
+final class MarkupScanner {
+    static final int NONE = 0;
+    static final int START_TAG = 1;
+    static final int END_TAG = 2;
+    static final int EMPTY_TAG = 3;
+    static final int UNBALANCED_TAG = 4;
+
+    private static final int MAX_NAME_LENGTH = 256;
+
+    private static final int TEXT = 0;
+    private static final int TAG_OPEN = 1;
+    private static final int START_NAME = 2;
+    private static final int START_TAG_BODY = 3;
+    private static final int DOUBLE_QUOTED = 4;
+    private static final int SINGLE_QUOTED = 5;
+    private static final int EMPTY_TAG_SLASH = 6;
+    private static final int END_NAME = 7;
+    private static final int END_TAG_BODY = 8;
+    private static final int PROCESSING_INSTRUCTION = 9;
+    private static final int PROCESSING_INSTRUCTION_END = 10;
+    private static final int DECLARATION_OPEN = 11;
+    private static final int COMMENT_OPEN = 12;
+    private static final int COMMENT = 13;
+    private static final int CDATA_OPEN = 14;
+    private static final int CDATA = 15;
+    private static final int DECLARATION = 16;
+    private static final int DECLARATION_DOUBLE_QUOTED = 17;
+    private static final int DECLARATION_SINGLE_QUOTED = 18;
+
+    private final byte[] name = new byte[MAX_NAME_LENGTH];
+    private final boolean nestingChecked;
+    /**
+     * Names of the open elements when the nesting is checked: the first {@link #MAX_NAME_LENGTH} bytes of each name
+     * are stacked in {@code openNames}, the full length of each name in {@code openNameLengths}.
+     */
+    private byte[] openNames;
+    private int openNamesSize;
+    private int[] openNameLengths;
+    private int nameLength;
+    private int state = TEXT;
+    private int depth;
+    private int counter;
+    private long position;
+    private long tagStart = -1;
+
+    MarkupScanner() {
+        this(false);
+    }
+
+    /**
+     * @param nestingChecked true to keep the names of the open elements and report unbalanced end tags
+     */
+    MarkupScanner(boolean nestingChecked) {
+        this.nestingChecked = nestingChecked;
+        if (nestingChecked) {
+            this.openNames = new byte[MAX_NAME_LENGTH];
+            this.openNameLengths = new int[16];
+        }
+    }
+
+    /**
+     * Consume the next byte of the document.
+     *
+     * @param b the next byte
+     * @return {@link #START_TAG}, {@link #END_TAG} or {@link #EMPTY_TAG} if the byte completed a tag, else {@link #NONE}.
+     * {@link #UNBALANCED_TAG} if the nesting is checked and the byte completed an end tag that does not match the open
+     * element; the depth is not changed then.
+     */
+    int update(byte b) {
+        position++;
+        switch (state) {
+            case TEXT:
+                if ('<' == b) {
+                    tagStart = position - 1;
+                    state = TAG_OPEN;
+                }
+                return NONE;
+            case TAG_OPEN:
+                nameLength = 0;
+                if ('/' == b) {
+                    state = END_NAME;
+                } else if ('?' == b) {
+                    state = PROCESSING_INSTRUCTION;
+                } else if ('!' == b) {
+                    state = DECLARATION_OPEN;
+                } else {
+                    appendName(b);
+                    state = START_NAME;
+                }
+                return NONE;
+            case START_NAME:
+                if ('>' == b) {
+                    return startTag();
+                } else if ('/' == b) {
+                    state = EMPTY_TAG_SLASH;
+                } else if (isWhitespace(b)) {
+                    state = START_TAG_BODY;
+                } else {
+                    appendName(b);
+                }
+                return NONE;
+            case START_TAG_BODY:
+                if ('>' == b) {
+                    return startTag();
+                } else if ('/' == b) {
+                    state = EMPTY_TAG_SLASH;
+                } else if ('"' == b) {
+                    state = DOUBLE_QUOTED;
+                } else if ('\'' == b) {
+                    state = SINGLE_QUOTED;
+                }
+                return NONE;
+            case DOUBLE_QUOTED:
+                if ('"' == b) {
+                    state = START_TAG_BODY;
+                }
+                return NONE;
+            case SINGLE_QUOTED:
+                if ('\'' == b) {
+                    state = START_TAG_BODY;
+                }
+                return NONE;
+            case EMPTY_TAG_SLASH:
+                if ('>' == b) {
+                    state = TEXT;
+                    return EMPTY_TAG;
+                }
+                state = START_TAG_BODY;
+                return NONE;
+            case END_NAME:
+                if ('>' == b) {
+                    return endTag();
+                } else if (isWhitespace(b)) {
+                    state = END_TAG_BODY;
+                } else {
+                    appendName(b);
+                }
+                return NONE;
+            case END_TAG_BODY:
+                if ('>' == b) {
+                    return endTag();
+                }
+                return NONE;
+            case PROCESSING_INSTRUCTION:
+                if ('?' == b) {
+                    state = PROCESSING_INSTRUCTION_END;
+                }
+                return NONE;
+            case PROCESSING_INSTRUCTION_END:
+                if ('>' == b) {
+                    state = TEXT;
+                } else if ('?' != b) {
+                    state = PROCESSING_INSTRUCTION;
+                }
+                return NONE;
+            case DECLARATION_OPEN:
+                if ('-' == b) {
+                    state = COMMENT_OPEN;
+                } else if ('[' == b) {
+                    state = CDATA_OPEN;
+                } else {
+                    counter = 0;
+                    state = DECLARATION;
+                    return updateDeclaration(b, DECLARATION);
+                }
+                return NONE;
+            case COMMENT_OPEN:
+                counter = 0;
+                state = COMMENT;
+                return NONE;
+            case COMMENT:
+                if ('-' == b) {
+                    counter++;
+                } else if ('>' == b && counter >= 2) {
+                    state = TEXT;
+                } else {
+                    counter = 0;
+                }
+                return NONE;
+            case CDATA_OPEN:
+                if ('[' == b) {
+                    counter = 0;
+                    state = CDATA;
+                }
+                return NONE;
+            case CDATA:
+                if (']' == b) {
+                    counter++;
+                } else if ('>' == b && counter >= 2) {
+                    state = TEXT;
+                } else {
+                    counter = 0;
+                }
+                return NONE;
+            default:
+                return updateDeclaration(b, state);
+        }
+    }
+
+    /**
+     * Declaration states, kept apart since a declaration may be entered on the byte that identified it.
+     */
+    private int updateDeclaration(byte b, int declarationState) {
+        switch (declarationState) {
+            case DECLARATION:
+                if ('"' == b) {
+                    state = DECLARATION_DOUBLE_QUOTED;
+                } else if ('\'' == b) {
+                    state = DECLARATION_SINGLE_QUOTED;
+                } else if ('[' == b) {
+                    counter++;
+                } else if (']' == b) {
+                    counter--;
+                } else if ('>' == b && counter <= 0) {
+                    state = TEXT;
+                }
+                return NONE;
+            case DECLARATION_DOUBLE_QUOTED:
+                if ('"' == b) {
+                    state = DECLARATION;
+                }
+                return NONE;
+            case DECLARATION_SINGLE_QUOTED:
+                if ('\'' == b) {
+                    state = DECLARATION;
+                }
+                return NONE;
+            default:
+                throw new IllegalStateException("Unknown markup scanner state " + declarationState);
+        }
+    }
+
+    private int startTag() {
+        if (nestingChecked) {
+            pushName();
+        }
+        depth++;
+        state = TEXT;
+        return START_TAG;
+    }
+
+    private int endTag() {
+        state = TEXT;
+        if (nestingChecked) {
+            if (0 == depth || !nameEquals(openNames, openNamesSize - storedLength(openNameLengths[depth - 1]), openNameLengths[depth - 1])) {
+                return UNBALANCED_TAG;
+            }
+            openNamesSize -= storedLength(openNameLengths[depth - 1]);
+        }
+        depth--;
+        return END_TAG;
+    }
+
+    private void pushName() {
+        int stored = storedLength(nameLength);
+        if (openNamesSize + stored > openNames.length) {
+            openNames = Arrays.copyOf(openNames, Math.max(openNames.length * 2, openNamesSize + stored));
+        }
+        System.arraycopy(name, 0, openNames, openNamesSize, stored);
+        openNamesSize += stored;
+        if (depth == openNameLengths.length) {
+            openNameLengths = Arrays.copyOf(openNameLengths, depth * 2);
+        }
+        openNameLengths[depth] = nameLength;
+    }
+
+    private static int storedLength(int nameLength) {
+        return Math.min(nameLength, MAX_NAME_LENGTH);
+    }
+
+    /**
+     * Compare the name of the tag completed last with a stored name, by length and the stored bytes.
+     */
+    private boolean nameEquals(byte[] names, int offset, int length) {
+        if (length != nameLength) {
+            return false;
+        }
+        for (int i = 0; i < storedLength(length); i++) {
+            if (names[offset + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendName(byte b) {
+        if (nameLength < MAX_NAME_LENGTH) {
+            name[nameLength] = b;
+        }
+        nameLength++;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return ' ' == b || '\n' == b || '\r' == b || '\t' == b;
+    }
+
+    /**
+     * @param elementName element name as written in the document, in ASCII compatible encoding.
+     * @return true if the tag completed last has this name
+     */
+    boolean nameEquals(byte[] elementName) {
+        if (elementName.length != nameLength || nameLength > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (elementName[i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of currently open elements
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return true when the scanner is between tags, i.e. not inside markup
+     */
+    boolean isInText() {
+        return TEXT == state;
+    }
+
+    /**
+     * @return the number of bytes consumed since the last reset
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the position of the {@code <} of the last tag that was started
+     */
+    long getTagStart() {
+        return tagStart;
+    }
+
+    /**
+     * @return the name of the tag completed last, cut at 256 bytes, for error messages
+     */
+    String getTagName() {
+        return new String(name, 0, storedLength(nameLength), StandardCharsets.UTF_8);
+    }
+
+    static byte[] toName(String elementName) {
+        byte[] bytes = elementName.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Illegal element name \"" + elementName + "\"");
+        }
+        return bytes;
+    }
+
+    void reset() {
+        state = TEXT;
+        depth = 0;
+        counter = 0;
+        nameLength = 0;
+        position = 0;
+        tagStart = -1;
+        openNamesSize = 0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The per-parse state of a {@link DocumentParser}: the stack of compiled elements for the current XML branch
+ * and the attribute value buffer of the current start element. A cursor belongs to one parser at a time and
+ * is reset, not reallocated, between documents.
+ */
+final class ParseCursor {
+    private static final int INITIAL_DEPTH = 16;
+
+    private final CompiledElement root;
+    private final String[] attributeValues;
+    private final AttributeValues attributeValuesView = new AttributeValues();
+    private CompiledElement[] stack = new CompiledElement[INITIAL_DEPTH];
+    private int depth;
+
+    ParseCursor(CompiledMappings plan) {
+        this.root = plan.getRoot();
+        this.attributeValues = new String[plan.getMaxAttributeSlots()];
+        reset();
+    }
+
+    void reset() {
+        Arrays.fill(stack, 0, depth, null);
+        Arrays.fill(attributeValues, null);
+        stack[0] = root;
+        depth = 1;
+    }
+
+    boolean isEmpty() {
+        return depth == 0;
+    }
+
+    CompiledElement peek() {
+        return depth == 0 ? null : stack[depth - 1];
+    }
+
+    void push(CompiledElement element) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = element;
+    }
+
+    CompiledElement pop() {
+        CompiledElement element = stack[--depth];
+        stack[depth] = null;
+        return element;
+    }
+
+    /**
+     * @return the value buffer indexed by the attribute slots of the current element.
+     */
+    String[] getAttributeValues() {
+        return attributeValues;
+    }
+
+    /**
+     * @return a map view of the attribute values used by one attribute mapping of the current element.
+     */
+    Map<String, String> getAttributeValues(CompiledElement element, int mappingIndex) {
+        return attributeValuesView.bind(element.getAttributeMappingKeys(mappingIndex), element.getAttributeMappingSlots(mappingIndex), attributeValues);
+    }
+}
@@ -0,0 +1,25 @@
+package com.mobenga.ngen.xml.parser;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Drives one {@link DocumentParser} through the tokens of one StAX reader. The driver is advanced one token at a
+ * time, which lets the {@link XmlParser} either run a whole document at once or hand out results while parsing.
+ */
+interface ParseDriver {
+
+    /**
+     * Read the next token from the reader and dispatch it to the document parser.
+     *
+     * @return false when the document is fully read or the document parser is complete.
+     * @throws XMLStreamException Malformed data causes this exception.
+     */
+    boolean step() throws XMLStreamException;
+
+    /**
+     * Close the reader. The underlying input is not closed.
+     *
+     * @throws XMLStreamException if the reader fails to close.
+     */
+    void close() throws XMLStreamException;
+}
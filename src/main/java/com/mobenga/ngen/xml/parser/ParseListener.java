@@ -0,0 +1,102 @@
+package com.mobenga.ngen.xml.parser;
+
+/**
+ * Receives instrumentation callbacks from a {@link DocumentParser} while it parses one document. A listener is
+ * created per document by the factory set with {@link XmlParser.XmlParserBuilder#parseListener(java.util.function.Supplier)},
+ * so an implementation is only invoked by one thread and may keep the statistics of the document in plain fields.
+ * <p>
+ * Element names are the names of the {@link ElementParserSettings} of mapped elements, and the local names as
+ * written in the document for skipped elements. Times are measured with {@link System#nanoTime()}, and only when
+ * a listener is present; without a listener the parser does not read the clock at all.
+ * <p>
+ * All methods have empty default implementations.
+ */
+public interface ParseListener {
+
+    /**
+     * The mapping name of element text mappings in {@link #mappingApplied(String, String, long)}.
+     */
+    String TEXT_MAPPING = "text()";
+
+    /**
+     * Invoked before the first element of the document is parsed.
+     */
+    default void documentStarted() {
+    }
+
+    /**
+     * Invoked for each mapped element, before its start processor and attribute mappings.
+     *
+     * @param elementName name of the mapped element
+     */
+    default void elementStarted(String elementName) {
+    }
+
+    /**
+     * Invoked when the start processor of an element has run.
+     *
+     * @param elementName name of the mapped element
+     * @param nanos       time spent in the start processor
+     */
+    default void startProcessed(String elementName, long nanos) {
+    }
+
+    /**
+     * Invoked when the attribute mappings of an element have run.
+     *
+     * @param elementName name of the mapped element
+     * @param mappings    number of attribute mappings applied to an object
+     * @param nanos       time spent in the attribute mappings, mappers and setters included
+     */
+    default void attributesMapped(String elementName, int mappings, long nanos) {
+    }
+
+    /**
+     * Invoked when the element text mappings of an element have run for a text run.
+     *
+     * @param elementName name of the mapped element
+     * @param mappings    number of element text mappings applied to an object
+     * @param nanos       time spent in the element text mappings, mappers and setters included
+     */
+    default void textMapped(String elementName, int mappings, long nanos) {
+    }
+
+    /**
+     * Invoked for each attribute and element text mapping that was applied to an object, before
+     * {@link #attributesMapped(String, int, long)} or {@link #textMapped(String, int, long)} of the element.
+     *
+     * @param elementName name of the mapped element
+     * @param mappingName the attribute names of an attribute mapping separated by commas, or {@link #TEXT_MAPPING}
+     * @param nanos       time spent in the mapper and setter of the mapping
+     */
+    default void mappingApplied(String elementName, String mappingName, long nanos) {
+    }
+
+    /**
+     * Invoked for each mapped element when its end processor and end emitter have run.
+     *
+     * @param elementName name of the mapped element
+     * @param nanos       time spent in the end processor and the end emitter
+     */
+    default void elementEnded(String elementName, long nanos) {
+    }
+
+    /**
+     * Invoked for elements that are not mapped in their context. When the {@link XmlParser} skips unmapped
+     * elements, it is invoked again for the descendants of the element once its subtree has been skipped.
+     *
+     * @param elementName local name of the unmapped element
+     * @param elements    number of skipped elements
+     */
+    default void elementsSkipped(String elementName, int elements) {
+    }
+
+    /**
+     * Invoked when the parse of the document has ended, also when it failed or was terminated early.
+     *
+     * @param resultClass class of the requested result, or of the emitted objects for streaming parses
+     * @param bytesRead   number of bytes read from the input by the StAX reader
+     */
+    default void documentEnded(Class<?> resultClass, long bytesRead) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.mobenga.ngen.xml.parser;
+
+/**
+ * Base of the element text mappings that set a primitive value. The subclass maps the text and sets the value
+ * without boxing; {@link #map(CharSequence)} boxes the value for callers that need it as an object. Neither the
+ * setter nor the mapper of {@link ElementTextMapping} is used.
+ *
+ * @param <T> Map the field to an object of this class
+ * @param <K> Boxed type of the primitive value
+ */
+abstract class PrimitiveElementTextMapping<T, K> extends ElementTextMapping<T, K> {
+
+    PrimitiveElementTextMapping(Class<T> type) {
+        super(type);
+    }
+
+    @Override
+    void apply(T obj, CharSequence value) {
+        if (null != obj) {
+            applyValue(obj, value);
+        }
+    }
+
+    @Override
+    abstract K map(CharSequence value);
+
+    abstract void applyValue(T obj, CharSequence value);
+}
@@ -58,7 +58,9 @@ public class ProtectedClassMap implements BranchContext {
      */
     @Override
     public <T> T pop(final Class<T> objType) {
-        log.debug("Pop object of type {}", objType.getName());
+        if (log.isDebugEnabled()) {
+            log.debug("Pop object of type {}", objType.getName());
+        }
         T obj = branch.getInstance(objType);
         this.branch.remove(objType);
         if (log.isWarnEnabled() && null == obj) {
@@ -70,10 +72,11 @@ public class ProtectedClassMap implements BranchContext {
     @Override
     public <T> T pop(Predicate<Object> predicate) {
         T obj = this.getInstance(predicate);
-        branch.remove(obj.getClass());
-        if (log.isWarnEnabled() && null == obj) {
-            log.warn("Object of type {} did not exist in the BranchContext during pop.", obj.getClass().getName());
+        if (null == obj) {
+            log.warn("Object did not exist in the BranchContext during pop by predicate.");
+            return null;
         }
+        branch.remove(obj.getClass());
         return obj;
     }
 
@@ -86,7 +89,9 @@ public class ProtectedClassMap implements BranchContext {
      */
     @Override
     public void put(final Class objType, final Object obj) {
-        log.debug("Push object of type {}", objType.getName());
+        if (log.isDebugEnabled()) {
+            log.debug("Push object of type {}", objType.getName());
+        }
         if (null != branch.get(objType)) {
             throw new IllegalStateException("Misconfiguration of Mappings File.\nAn object of type " + objType.getName() + " already exists on this branch. Pop object type first!");
         }
@@ -0,0 +1,103 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Splits an XML document held in a byte buffer into the byte slices of its record elements, i.e. all elements with
+ * a given name that are not nested inside another record. The document is scanned lazily with a
+ * {@link MarkupScanner}. When split, a batch of scanned records is handed off as an array backed spliterator so that
+ * the records can be parsed in parallel while this spliterator continues scanning. Batches start small and grow,
+ * which gives all workers records early also for short documents.
+ */
+final class RecordSpliterator implements Spliterator<ByteBuffer> {
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+    private static final int INITIAL_BATCH = 16;
+    private static final int MAX_BATCH = 4096;
+
+    private final ByteBuffer xml;
+    private final byte[] recordName;
+    private final MarkupScanner scanner = new MarkupScanner();
+    private final int start;
+    private final int limit;
+    private int index;
+    private long recordStart = -1;
+    private int recordDepth;
+    private int batch = INITIAL_BATCH;
+
+    RecordSpliterator(ByteBuffer xml, String recordElementName) {
+        this.xml = xml;
+        this.recordName = MarkupScanner.toName(recordElementName);
+        this.start = xml.position();
+        this.limit = xml.limit();
+        this.index = start;
+    }
+
+    private ByteBuffer nextRecord() {
+        while (index < limit) {
+            int tag = scanner.update(xml.get(index++));
+            if (MarkupScanner.NONE == tag) {
+                continue;
+            }
+            if (recordStart < 0) {
+                if (MarkupScanner.END_TAG != tag && scanner.nameEquals(recordName)) {
+                    if (MarkupScanner.EMPTY_TAG == tag) {
+                        return slice(scanner.getTagStart(), scanner.getPosition());
+                    }
+                    recordStart = scanner.getTagStart();
+                    recordDepth = scanner.getDepth();
+                }
+            } else if (MarkupScanner.END_TAG == tag && scanner.getDepth() < recordDepth) {
+                ByteBuffer record = slice(recordStart, scanner.getPosition());
+                recordStart = -1;
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private ByteBuffer slice(long from, long to) {
+        ByteBuffer record = xml.duplicate();
+        record.limit(start + (int) to);
+        record.position(start + (int) from);
+        return record.slice();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ByteBuffer> action) {
+        ByteBuffer record = nextRecord();
+        if (null == record) {
+            return false;
+        }
+        action.accept(record);
+        return true;
+    }
+
+    @Override
+    public Spliterator<ByteBuffer> trySplit() {
+        ByteBuffer[] records = new ByteBuffer[batch];
+        int count = 0;
+        ByteBuffer record;
+        while (count < records.length && null != (record = nextRecord())) {
+            records[count++] = record;
+        }
+        if (count == 0) {
+            return null;
+        }
+        batch = Math.min(batch * 2, MAX_BATCH);
+        return Spliterators.spliterator(count < records.length ? Arrays.copyOf(records, count) : records, CHARACTERISTICS);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Base of the attribute mappings for a single attribute that set a primitive value. The attribute value is
+ * handed to the mapper without a map, and the setter is not invoked when the attribute is not present, since a
+ * missing primitive value can not be represented.
+ *
+ * @param <T> Map the field to an object of this class
+ * @param <K> Boxed type of the primitive value
+ */
+abstract class SingleAttributeMapping<T, K> extends AttributeMapping<T, K> {
+    private final String field;
+
+    SingleAttributeMapping(Class<T> resultingFieldType, String field) {
+        super(resultingFieldType, (Predicate<Object>) null, null, null, null, field);
+        this.field = field;
+    }
+
+    @Override
+    void applyTo(T obj, BranchContext objectBranch, Map<String, String> values) {
+        String value = values.get(field);
+        if (null != obj && null != value) {
+            applyValue(obj, value);
+        }
+    }
+
+    abstract void applyValue(T obj, String value);
+}
@@ -0,0 +1,31 @@
+package com.mobenga.ngen.xml.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a single start processor, end processor or mapping invocation that exceeded the
+ * threshold of the {@link JfrParseListener}.
+ */
+@Name("com.mobenga.ngen.xml.SlowCallback")
+@Label("Slow XML Mapping Callback")
+@Description("A start processor, end processor or mapping that exceeded the slow callback threshold")
+@Category({"NGen XML Parser"})
+@StackTrace(false)
+class SlowCallbackEvent extends jdk.jfr.Event {
+    @Label("Element Path")
+    @Description("Names of the mapped elements from the top element, e.g. /event/market")
+    String elementPath;
+
+    @Label("Callback")
+    @Description("start processor, end processor, or the name of the mapping")
+    String callback;
+
+    @Label("Callback Time")
+    @Timespan
+    long callbackTime;
+}
@@ -0,0 +1,75 @@
+package com.mobenga.ngen.xml.parser;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Drives a document parser with the StAX cursor API. Element names, attributes and text are read directly from the
+ * reader, no event objects are created.
+ *
+ * @see XmlParser.Engine#CURSOR
+ */
+final class StreamReaderDriver implements ParseDriver {
+    private final XMLStreamReader reader;
+    private final DocumentParser documentParser;
+    private final boolean skipUnmappedElements;
+
+    StreamReaderDriver(XMLStreamReader reader, DocumentParser documentParser, boolean skipUnmappedElements) {
+        this.reader = reader;
+        this.documentParser = documentParser;
+        this.skipUnmappedElements = skipUnmappedElements;
+    }
+
+    @Override
+    public boolean step() throws XMLStreamException {
+        if (documentParser.isComplete() || !reader.hasNext()) {
+            return false;
+        }
+        switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (!documentParser.parseStartElement(reader) && skipUnmappedElements) {
+                    skipSubtree();
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (documentParser.isTextNeeded()) {
+                    documentParser.parseCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                documentParser.parseEndElement(reader.getLocalName());
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Consumes the subtree of the start element the reader is positioned at, up to and including its end element.
+     * Nothing is dispatched to the document parser and no text is read.
+     */
+    private void skipSubtree() throws XMLStreamException {
+        long startOffset = reader.getLocation().getCharacterOffset();
+        int elements = 1;
+        int depth = 1;
+        while (depth > 0) {
+            int eventType = reader.next();
+            if (XMLStreamConstants.START_ELEMENT == eventType) {
+                elements++;
+                depth++;
+            } else if (XMLStreamConstants.END_ELEMENT == eventType) {
+                depth--;
+            }
+        }
+        documentParser.subtreeSkipped(elements, startOffset, reader.getLocation().getCharacterOffset());
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.mobenga.ngen.xml.parser;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer collecting the text chunks of one text run, i.e. the text between two tags. StAX readers may
+ * report a text run as several chunks at buffer boundaries, entities and CDATA sections; the buffer joins them so
+ * the element text mappings see the whole text once. The buffer grows to the longest text run and is then reused.
+ */
+final class TextBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int length;
+
+    void append(char[] text, int start, int count) {
+        ensureCapacity(count);
+        System.arraycopy(text, start, chars, length, count);
+        length += count;
+    }
+
+    void append(String text) {
+        ensureCapacity(text.length());
+        text.getChars(0, text.length(), chars, length);
+        length += text.length();
+    }
+
+    private void ensureCapacity(int count) {
+        if (length + count > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + count));
+        }
+    }
+
+    boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * @return the view pointed at the collected text, trimmed
+     */
+    TextView trim(TextView view) {
+        return view.trim(chars, 0, length);
+    }
+
+    void clear() {
+        length = 0;
+    }
+}
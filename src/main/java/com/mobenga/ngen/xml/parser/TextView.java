@@ -0,0 +1,61 @@
+package com.mobenga.ngen.xml.parser;
+
+/**
+ * Read only {@link CharSequence} view over a range of a character buffer holding the text of the current XML text
+ * run. The view is re-pointed for every text run instead of being allocated, and is only valid while the element
+ * text mappings are invoked. A String is only created by {@link #toString()} and {@link #subSequence(int, int)}.
+ *
+ * @see TextBuffer
+ */
+final class TextView implements CharSequence {
+    private char[] chars;
+    private int start;
+    private int length;
+
+    /**
+     * Point the view at the characters of the range, with leading and trailing whitespace trimmed like {@link String#trim()}.
+     */
+    TextView trim(char[] chars, int start, int length) {
+        int end = start + length;
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        this.chars = chars;
+        this.start = start;
+        this.length = end - start;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chars[start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new String(chars, this.start + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, start, length);
+    }
+}
@@ -0,0 +1,187 @@
+package com.mobenga.ngen.xml.parser;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A non blocking parser that is fed the bytes of XML documents as they arrive, e.g. from the read events of an NIO
+ * selector or an asynchronous channel. No thread waits for the input: each {@link #feed(ByteBuffer)} scans the new
+ * bytes with a {@link MarkupScanner}, which keeps its state between chunks, so a chunk may end anywhere, also in
+ * the middle of a tag. When the root element of a document has ended, the document is parsed right away on the
+ * feeding thread and its result is handed to the consumer. A feed may hold the end of one document and the start
+ * of the next, so one feed parser serves a whole connection of consecutive documents.
+ * <p>
+ * The bytes of the current document are collected until it is complete, since the StAX API can only parse from a
+ * blocking stream. Memory use is bounded by the maximum document size, see
+ * {@link XmlParser#feedParser(CompiledMappings, Supplier, Class, Consumer, int)}, and the buffer is given back after
+ * a large document, so an idle feed holds a few kilobytes.
+ * <p>
+ * The scanner checks the nesting of the elements, so an end tag that does not match its start tag fails the
+ * document when the end tag is fed, instead of holding back the documents after it. A document that exceeds the
+ * maximum size is dropped as well; the rest of it is scanned but not kept, and the feed continues with the next
+ * document.
+ * The document parser is reused for the documents of the feed, and each document starts with a new object branch,
+ * as with {@link XmlParser#parseXmlDocuments(java.io.InputStream, DocumentParser, Supplier, Class, Consumer)}.
+ * <p>
+ * A feed parser holds the state of one input and must not be used by several threads at the same time; it may be
+ * fed by different threads one after the other. The encoding of the {@link XmlParser} must be ASCII compatible.
+ *
+ * @param <T> Required result type
+ */
+public final class XmlFeedParser<T> {
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+
+    private final XmlParser xmlParser;
+    private final DocumentParser documentParser;
+    private final Supplier<? extends BranchContext> objectBranches;
+    private final Class<T> resultClass;
+    private final Consumer<? super T> consumer;
+    private final int maxDocumentBytes;
+    private final MarkupScanner scanner = new MarkupScanner(true);
+    private byte[] document = new byte[INITIAL_CAPACITY];
+    private int length;
+    private boolean discarding;
+    private long documents;
+
+    XmlFeedParser(XmlParser xmlParser, CompiledMappings plan, Supplier<? extends BranchContext> objectBranches, Class<T> resultClass,
+                  Consumer<? super T> consumer, int maxDocumentBytes) {
+        if (maxDocumentBytes <= 0) {
+            throw new IllegalArgumentException("The maximum document size must be positive: " + maxDocumentBytes);
+        }
+        xmlParser.requireAsciiCompatibleEncoding();
+        this.xmlParser = xmlParser;
+        this.documentParser = new DocumentParser(plan);
+        this.objectBranches = objectBranches;
+        this.resultClass = resultClass;
+        this.consumer = consumer;
+        this.maxDocumentBytes = maxDocumentBytes;
+    }
+
+    /**
+     * Consume the remaining bytes of the chunk. The results of the documents that are completed by the chunk are
+     * handed to the consumer before this method returns. The chunk is not kept, so its buffer may be reused for the
+     * next read right away.
+     *
+     * @param chunk the remaining bytes are the next part of the input. Its position is moved to its limit.
+     * @throws XMLStreamException    if a document is malformed, or has an unbalanced end tag. The document is
+     *                               dropped and the bytes after it, or after the unbalanced end tag, are left in the
+     *                               chunk, so the feed continues when the chunk is fed again.
+     * @throws IllegalStateException if the current document exceeds the maximum document size. The document is
+     *                               dropped and the rest of it is skipped when the chunk is fed again.
+     */
+    public void feed(ByteBuffer chunk) throws XMLStreamException {
+        while (chunk.hasRemaining()) {
+            byte b = chunk.get();
+            if (0 == length && !discarding && isWhitespace(b)) {
+                // Whitespace before and between documents
+                continue;
+            }
+            // Every byte is scanned, also those of a dropped document, to find the end of the document
+            int tag = scanner.update(b);
+            if (MarkupScanner.UNBALANCED_TAG == tag) {
+                String name = scanner.getTagName();
+                clear();
+                throw new XMLStreamException("The end tag </" + name + "> does not match an open element, the document was dropped.");
+            }
+            boolean documentEnded = (MarkupScanner.END_TAG == tag || MarkupScanner.EMPTY_TAG == tag) && scanner.getDepth() == 0;
+            if (!discarding) {
+                if (length >= maxDocumentBytes) {
+                    drop(documentEnded);
+                }
+                if (length == document.length) {
+                    grow();
+                }
+                document[length++] = b;
+            }
+            if (documentEnded) {
+                if (discarding) {
+                    clear();
+                } else {
+                    parseDocument();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tell the feed parser that the input has ended.
+     *
+     * @throws XMLStreamException if the input ended within a document.
+     */
+    public void endOfInput() throws XMLStreamException {
+        if (isDocumentPending()) {
+            int pending = length;
+            clear();
+            throw new XMLStreamException("The input ended within a document, " + pending + " bytes of it were dropped.");
+        }
+    }
+
+    /**
+     * @return true if bytes of an incomplete document have been fed.
+     */
+    public boolean isDocumentPending() {
+        return length > 0 || discarding;
+    }
+
+    /**
+     * @return the number of documents parsed, malformed documents included.
+     */
+    public long getDocumentCount() {
+        return documents;
+    }
+
+    private void parseDocument() throws XMLStreamException {
+        documentParser.reset(objectBranches.get());
+        documents++;
+        T result;
+        try {
+            result = xmlParser.parseXmlUnsafe(new ByteArrayInputStream(document, 0, length), documentParser, resultClass);
+        } finally {
+            clear();
+        }
+        if (null != result) {
+            consumer.accept(result);
+        }
+    }
+
+    /**
+     * Drop the document that exceeds the maximum size. Unless the document ended with the last byte scanned, the
+     * rest of it is skipped, keeping the scanner state to find its end.
+     */
+    private void drop(boolean documentEnded) {
+        if (documentEnded) {
+            clear();
+        } else {
+            length = 0;
+            discarding = true;
+            releaseBuffer();
+        }
+        throw new IllegalStateException("The document exceeds the maximum size of " + maxDocumentBytes + " bytes, it is dropped.");
+    }
+
+    private void grow() {
+        document = Arrays.copyOf(document, (int) Math.min(maxDocumentBytes, 2L * document.length));
+    }
+
+    private void clear() {
+        length = 0;
+        discarding = false;
+        scanner.reset();
+        releaseBuffer();
+    }
+
+    private void releaseBuffer() {
+        if (document.length > RETAINED_CAPACITY) {
+            document = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return ' ' == b || '\n' == b || '\r' == b || '\t' == b;
+    }
+}
@@ -3,22 +3,74 @@ package com.mobenga.ngen.xml.parser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.xml.namespace.QName;
 import javax.xml.stream.*;
-import javax.xml.stream.events.*;
+import javax.xml.stream.events.XMLEvent;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Parses an input stream with XML content using the provided document parser.
+ * <p>
+ * The {@link XMLInputFactory} is built and configured once per XmlParser instance and then reused for every parse.
+ * An XmlParser is thread safe and is meant to be created once and shared.
  */
 public class XmlParser {
 
+    /**
+     * The StAX API used to read the XML stream.
+     */
+    public enum Engine {
+        /**
+         * Reads the XML with the cursor API ({@link XMLStreamReader}). Element names, attributes and text are read
+         * directly from the reader without creating an event object per node. This is the default engine.
+         */
+        CURSOR,
+        /**
+         * Reads the XML with the event iterator API ({@link XMLEventReader}). Kept as a fallback for StAX
+         * implementations where the cursor API is not usable.
+         */
+        EVENT
+    }
+
     private static final Logger log = LoggerFactory.getLogger(XmlParser.class);
     private static final String UTF_8 = "UTF-8";
+    private static final int DEFAULT_MAX_FEED_DOCUMENT_BYTES = 1024 * 1024;
 
-    private Map<String, Object> xmlInputFactoryProperties;
-    private String encoding;
+    private final Map<String, Object> xmlInputFactoryProperties;
+    private final String encoding;
+    private final Engine engine;
+    private final boolean skipUnmappedElements;
+    private final boolean diagnostics;
+    private final Supplier<? extends ParseListener> parseListenerFactory;
+    private volatile XMLInputFactory inputFactory;
 
     public static XmlParserBuilder builder() {
         return new XmlParserBuilder();
@@ -37,7 +89,7 @@ public class XmlParser {
      * @param encoding the character encoding of the stream
      */
     public XmlParser(String encoding) {
-        this(encoding, null);
+        this(encoding, null, Engine.CURSOR, false, false, null);
     }
 
     /**
@@ -45,10 +97,19 @@ public class XmlParser {
      *
      * @param encoding                  the character encoding of the stream
      * @param xmlInputFactoryProperties the properties that will be used during construction of XMLInputFactory
+     * @param engine                    the StAX API used to read the stream
+     * @param skipUnmappedElements      skip the whole subtree of elements without parser settings
+     * @param diagnostics               log per element diagnostics
+     * @param parseListenerFactory      creates a listener per document, or null
      */
-    private XmlParser(String encoding, Map<String, Object> xmlInputFactoryProperties) {
+    private XmlParser(String encoding, Map<String, Object> xmlInputFactoryProperties, Engine engine, boolean skipUnmappedElements,
+                      boolean diagnostics, Supplier<? extends ParseListener> parseListenerFactory) {
         this.encoding = encoding;
-        this.xmlInputFactoryProperties = xmlInputFactoryProperties;
+        this.xmlInputFactoryProperties = null == xmlInputFactoryProperties ? null : new HashMap<>(xmlInputFactoryProperties);
+        this.engine = engine;
+        this.skipUnmappedElements = skipUnmappedElements;
+        this.diagnostics = diagnostics;
+        this.parseListenerFactory = parseListenerFactory;
     }
 
     /**
@@ -63,27 +124,487 @@ public class XmlParser {
      * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
      */
     public <T> T parseXmlUnsafe(InputStream xmlStream, DocumentParser documentParser, Class<T> resultClass) throws XMLStreamException {
-        XMLInputFactory inputFactory = buildXmlInputFactory();
-        XMLEventReader eventReader = inputFactory.createXMLEventReader(xmlStream, encoding);
-
-        while (eventReader.hasNext()) {
-            XMLEvent xmlEvent = eventReader.nextEvent();
-
-            if (xmlEvent.isStartElement()) {
-                documentParser.parseStartElement(xmlEvent);
-            } else if (xmlEvent.isCharacters()) {
-                documentParser.parseCharacters(((Characters) xmlEvent).getData());
-            } else if (xmlEvent.isEndElement()) {
-                documentParser.parseEndElement(xmlEvent);
+        return parseDocument(xmlStream, createDriver(xmlStream, documentParser), documentParser, resultClass);
+    }
+
+    /**
+     * Parses a stream of consecutive XML documents, e.g. documents pushed back to back on a socket, and hands the
+     * result of each document to the consumer. The stream is split at the end of each root element while it is read,
+     * so the documents are not copied apart first. A new StAX reader is created per document, but the document parser
+     * is reset and reused. Each document starts with a new object branch from {@code objectBranches}, which may
+     * pre load it like the object branch given to a {@link DocumentParser}; the object branch the document parser
+     * was created with is not used.
+     * <p>
+     * Whitespace between the documents is skipped, and each document may start with an XML declaration. Comments and
+     * processing instructions after a root element are read as part of the next document. When the document parser
+     * completes a document early, the rest of that document is skipped. The encoding must be ASCII compatible.
+     *
+     * @param xmlStream      consecutive xml documents, read until end of stream
+     * @param documentParser Document parser to use for parsing each document
+     * @param objectBranches creates the object branch of each document
+     * @param resultClass    Class for the required result type
+     * @param consumer       receives the result of each document in stream order. Documents without a result are left out.
+     * @param <T>            Required result type
+     * @return the number of parsed documents
+     * @throws XMLStreamException    Malformed data causes this exception; the documents before it have been consumed.
+     * @throws IOException           If reading the stream fails between documents.
+     * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
+     */
+    public <T> long parseXmlDocuments(InputStream xmlStream, DocumentParser documentParser, Supplier<? extends BranchContext> objectBranches,
+                                      Class<T> resultClass, Consumer<? super T> consumer) throws XMLStreamException, IOException {
+        requireAsciiCompatibleEncoding();
+        DocumentBoundaryInputStream documents = new DocumentBoundaryInputStream(xmlStream);
+        long count = 0;
+        while (documents.nextDocument()) {
+            documentParser.reset(objectBranches.get());
+            runDriver(createDriver(documents, documentParser), documentParser, resultClass);
+            count++;
+            T result = documentParser.getResult(resultClass);
+            if (null != result) {
+                consumer.accept(result);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Build a parser for batches of many documents, each parsed on a thread of its own with this parser.
+     *
+     * @return a builder of a batch parser
+     * @see BatchParser
+     */
+    public BatchParser.BatchParserBuilder batchParser() {
+        return new BatchParser.BatchParserBuilder(this);
+    }
+
+    /**
+     * Create a non blocking parser that is fed the bytes of consecutive XML documents as they arrive, and parses
+     * each document as soon as its root element has ended. Documents may be up to 1 MB. Each document starts with a
+     * new {@link ProtectedClassMap} object branch.
+     *
+     * @param plan        compiled mappings to parse the documents with
+     * @param resultClass Class for the required result type
+     * @param consumer    receives the result of each document on the feeding thread. Documents without a result are left out.
+     * @param <T>         Required result type
+     * @return a new feed parser for one input
+     * @see XmlFeedParser
+     */
+    public <T> XmlFeedParser<T> feedParser(CompiledMappings plan, Class<T> resultClass, Consumer<? super T> consumer) {
+        return feedParser(plan, ProtectedClassMap::new, resultClass, consumer, DEFAULT_MAX_FEED_DOCUMENT_BYTES);
+    }
+
+    /**
+     * Create a non blocking parser that is fed the bytes of consecutive XML documents as they arrive, and parses
+     * each document as soon as its root element has ended.
+     *
+     * @param plan             compiled mappings to parse the documents with
+     * @param objectBranches   creates the object branch of each document
+     * @param resultClass      Class for the required result type
+     * @param consumer         receives the result of each document on the feeding thread. Documents without a result are left out.
+     * @param maxDocumentBytes the maximum size of a document, which bounds the memory held by the feed parser
+     * @param <T>              Required result type
+     * @return a new feed parser for one input
+     * @see XmlFeedParser
+     */
+    public <T> XmlFeedParser<T> feedParser(CompiledMappings plan, Supplier<? extends BranchContext> objectBranches, Class<T> resultClass,
+                                           Consumer<? super T> consumer, int maxDocumentBytes) {
+        return new XmlFeedParser<>(this, plan, objectBranches, resultClass, consumer, maxDocumentBytes);
+    }
+
+    /**
+     * Parses an input stream with XML content using the mappings registered for its root element. The root element
+     * is read once, the plan registered for its name and namespace is looked up, and parsing continues with a new
+     * document parser for that plan from the root element on; the head of the document is not buffered or re-read.
+     *
+     * @param xmlStream xml content to parse
+     * @param registry  compiled mappings keyed by their top element
+     * @return an object of the result class registered with the mappings, or null if no such object was available
+     * on the object branch.
+     * @throws XMLStreamException    Malformed data, or a document without elements, causes this exception.
+     * @throws IllegalStateException If no mappings are registered for the root element. Misconfigured mapping files
+     *                               are another common cause of this exception.
+     */
+    public Object parseXmlUnsafe(InputStream xmlStream, MappingsRegistry registry) throws XMLStreamException {
+        DocumentInput documentInput = new DocumentInput(xmlStream);
+        XMLInputFactory inputFactory = getXmlInputFactory();
+        MappingsRegistry.Registration registration;
+        DocumentParser documentParser;
+        ParseDriver driver;
+        if (Engine.EVENT == engine) {
+            XMLEventReader eventReader = inputFactory.createXMLEventReader(documentInput.getInput(), encoding);
+            try {
+                XMLEvent rootElement = eventReader.nextEvent();
+                while (!rootElement.isStartElement()) {
+                    if (!eventReader.hasNext()) {
+                        throw new XMLStreamException("The document has no root element.");
+                    }
+                    rootElement = eventReader.nextEvent();
+                }
+                QName name = rootElement.asStartElement().getName();
+                registration = lookup(registry, name.getLocalPart(), name.getNamespaceURI());
+                documentParser = new DocumentParser(registration.getPlan());
+                documentInput.start(documentParser);
+                documentParser.parseStartElement(rootElement);
+            } catch (XMLStreamException | RuntimeException e) {
+                eventReader.close();
+                throw e;
+            }
+            driver = new EventReaderDriver(eventReader, documentParser, skipUnmappedElements);
+        } else {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(documentInput.getInput(), encoding);
+            try {
+                while (XMLStreamConstants.START_ELEMENT != reader.getEventType()) {
+                    if (!reader.hasNext()) {
+                        throw new XMLStreamException("The document has no root element.");
+                    }
+                    reader.next();
+                }
+                registration = lookup(registry, reader.getLocalName(), reader.getNamespaceURI());
+                documentParser = new DocumentParser(registration.getPlan());
+                documentInput.start(documentParser);
+                documentParser.parseStartElement(reader);
+            } catch (XMLStreamException | RuntimeException e) {
+                reader.close();
+                throw e;
             }
+            driver = new StreamReaderDriver(reader, documentParser, skipUnmappedElements);
+        }
+        return parseDocument(xmlStream, driver, documentParser, registration.getResultClass());
+    }
+
+    private static MappingsRegistry.Registration lookup(MappingsRegistry registry, String localName, String namespace) {
+        MappingsRegistry.Registration registration = registry.lookup(localName, namespace);
+        if (null == registration) {
+            throw new IllegalStateException("No mappings are registered for the root element " + new QName(null == namespace ? "" : namespace, localName));
+        }
+        return registration;
+    }
+
+    /**
+     * Parses an input stream with XML content using several document parsers at the same time. The document is
+     * read and tokenized once, and each token is dispatched to all document parsers, so several mappings of the same
+     * document cost one parse instead of one per mapping. When the parser is built with skipping of unmapped
+     * elements, each document parser skips the subtrees of its own unmapped elements independently of the others.
+     * A document parser that is complete is not dispatched to anymore, and reading stops when all are complete.
+     *
+     * @param xmlStream       xml content to parse
+     * @param documentParsers document parsers to use for parsing the results, each at most once
+     * @param resultClasses   Class for the required result type of each document parser, in the same order
+     * @return the result of each document parser in the same order, null where no object of the required class was
+     * available on the object branch.
+     * @throws XMLStreamException    Malformed data causes this exception.
+     * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
+     */
+    public List<Object> parseXmlUnsafe(InputStream xmlStream, List<DocumentParser> documentParsers, List<? extends Class<?>> resultClasses) throws XMLStreamException {
+        if (documentParsers.size() != resultClasses.size()) {
+            throw new IllegalArgumentException("A result class is required for each of the " + documentParsers.size() + " document parsers.");
+        }
+        DocumentParser[] parsers = documentParsers.toArray(new DocumentParser[documentParsers.size()]);
+        Set<DocumentParser> distinctParsers = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinctParsers.addAll(documentParsers);
+        if (distinctParsers.size() != parsers.length) {
+            throw new IllegalArgumentException("A document parser can only parse the document once.");
+        }
+        CountingInputStream countingInput = null == parseListenerFactory ? null : new CountingInputStream(xmlStream);
+        InputStream input = null == countingInput ? xmlStream : countingInput;
+        for (DocumentParser documentParser : parsers) {
+            documentParser.setDiagnostics(diagnostics);
+            ParseListener listener = null == parseListenerFactory ? null : parseListenerFactory.get();
+            documentParser.startDocument(listener, null == listener ? null : countingInput);
+        }
+        XMLInputFactory inputFactory = getXmlInputFactory();
+        ParseDriver driver = Engine.EVENT == engine
+                ? FanOutDriver.forEventReader(inputFactory.createXMLEventReader(input, encoding), parsers, skipUnmappedElements)
+                : FanOutDriver.forStreamReader(inputFactory.createXMLStreamReader(input, encoding), parsers, skipUnmappedElements);
+        try {
+            while (driver.step()) {
+                // Each step dispatches one token to all document parsers that are not complete
+            }
+        } finally {
+            driver.close();
+            for (int i = 0; i < parsers.length; i++) {
+                parsers[i].endDocument(resultClasses.get(i));
+            }
+        }
+        boolean complete = true;
+        List<Object> results = new ArrayList<>(parsers.length);
+        for (int i = 0; i < parsers.length; i++) {
+            complete &= parsers[i].isComplete();
+            Object result = parsers[i].getResult(resultClasses.get(i));
+            if (log.isWarnEnabled() && null == result) {
+                log.warn("No object of requested class {} was available on the object branch in document parser {}.", resultClasses.get(i).getName(), i);
+            }
+            results.add(result);
+        }
+        if (complete) {
+            closeQuietly(xmlStream);
+        }
+        return results;
+    }
+
+    /**
+     * Parses an input stream with XML content using a new document parser for the provided compiled mappings.
+     * The plan may be shared by any number of threads parsing at the same time.
+     *
+     * @param xmlStream   xml content to parse
+     * @param plan        compiled mappings to parse the document with
+     * @param resultClass Class for the required result type
+     * @param <T>         Required result type
+     * @return an object of required result type.
+     * @throws XMLStreamException    Malformed data causes this exception.
+     * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
+     */
+    public <T> T parseXmlUnsafe(InputStream xmlStream, CompiledMappings plan, Class<T> resultClass) throws XMLStreamException {
+        return parseXmlUnsafe(xmlStream, new DocumentParser(plan), resultClass);
+    }
+
+    /**
+     * Parses a file with XML content using the provided document parser. The file is memory mapped and read
+     * without intermediate copies; files larger than 2 GB are mapped in consecutive windows.
+     *
+     * @param xmlFile        file with the xml content to parse
+     * @param documentParser Document parser to use for parsing the result
+     * @param resultClass    Class for the required result type
+     * @param <T>            Required result type
+     * @return an object of required result type.
+     * @throws XMLStreamException    Malformed data causes this exception.
+     * @throws IOException           If the file can not be opened or mapped.
+     * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
+     */
+    public <T> T parseXmlUnsafe(Path xmlFile, DocumentParser documentParser, Class<T> resultClass) throws XMLStreamException, IOException {
+        try (InputStream xmlStream = new MappedFileInputStream(xmlFile)) {
+            return parseXmlUnsafe(xmlStream, documentParser, resultClass);
+        }
+    }
+
+    /**
+     * Parses the remaining bytes of a buffer with XML content using the provided document parser. The bytes are
+     * read directly from the buffer, which may be a direct or memory mapped buffer. The position of the buffer
+     * is not changed.
+     *
+     * @param xml            the remaining bytes of the buffer are the xml content to parse
+     * @param documentParser Document parser to use for parsing the result
+     * @param resultClass    Class for the required result type
+     * @param <T>            Required result type
+     * @return an object of required result type.
+     * @throws XMLStreamException    Malformed data causes this exception.
+     * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
+     */
+    public <T> T parseXmlUnsafe(ByteBuffer xml, DocumentParser documentParser, Class<T> resultClass) throws XMLStreamException {
+        return parseXmlUnsafe(new ByteBufferInputStream(xml), documentParser, resultClass);
+    }
+
+    /**
+     * Parses the content of a channel with XML content using the provided document parser. The channel is read
+     * until end of stream, or until the document parser is complete in which case the channel is closed.
+     *
+     * @param xmlChannel     channel with the xml content to parse
+     * @param documentParser Document parser to use for parsing the result
+     * @param resultClass    Class for the required result type
+     * @param <T>            Required result type
+     * @return an object of required result type.
+     * @throws XMLStreamException    Malformed data causes this exception.
+     * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
+     */
+    public <T> T parseXmlUnsafe(ReadableByteChannel xmlChannel, DocumentParser documentParser, Class<T> resultClass) throws XMLStreamException {
+        return parseXmlUnsafe(Channels.newInputStream(xmlChannel), documentParser, resultClass);
+    }
+
+    /**
+     * Parses an input stream with XML content and hands each emitted object to the consumer as soon as its element
+     * has ended. Objects are emitted by the element end emitters of the mappings, see
+     * {@link ElementParserSettings#setElementEndEmitter(java.util.function.Function)}. The parser keeps no reference to
+     * an emitted object, so memory use is bounded by the depth of the current branch rather than by the document size.
+     *
+     * @param xmlStream      xml content to parse
+     * @param documentParser Document parser to use for parsing the result
+     * @param emittedClass   Class of the emitted objects to consume. Emitted objects of other classes are ignored.
+     * @param consumer       receives the emitted objects in document order
+     * @param <T>            Emitted object type
+     * @throws XMLStreamException    Malformed data causes this exception.
+     * @throws IllegalStateException Misconfigured mapping files are the most common cause of this exception.
+     */
+    public <T> void parseXmlUnsafe(InputStream xmlStream, DocumentParser documentParser, Class<T> emittedClass, Consumer<? super T> consumer) throws XMLStreamException {
+        documentParser.setEmittedObjectConsumer(emitted -> {
+            if (emittedClass.isInstance(emitted)) {
+                consumer.accept(emittedClass.cast(emitted));
+            }
+        });
+        try {
+            // Emitted objects are handed to the consumer while stepping
+            runDriver(createDriver(xmlStream, documentParser), documentParser, emittedClass);
+        } finally {
+            documentParser.setEmittedObjectConsumer(null);
+        }
+        if (documentParser.isComplete()) {
+            closeQuietly(xmlStream);
+        }
+    }
+
+    /**
+     * Lazily parses an input stream with XML content, returning the emitted objects as a sequential stream. The
+     * document is only read as far as needed to produce the objects consumed from the stream. Objects are emitted by
+     * the element end emitters of the mappings, see
+     * {@link ElementParserSettings#setElementEndEmitter(java.util.function.Function)}.
+     * <p>
+     * The returned stream should be closed, for example with try-with-resources, if it is not fully consumed. Parse
+     * errors are thrown as {@link IllegalStateException} with the {@link XMLStreamException} as cause.
+     *
+     * @param xmlStream      xml content to parse
+     * @param documentParser Document parser to use for parsing the result
+     * @param emittedClass   Class of the emitted objects to return. Emitted objects of other classes are ignored.
+     * @param <T>            Emitted object type
+     * @return a stream of the emitted objects in document order
+     * @throws XMLStreamException if the reader can not be created for the stream.
+     */
+    public <T> Stream<T> streamXml(InputStream xmlStream, DocumentParser documentParser, Class<T> emittedClass) throws XMLStreamException {
+        EmittedObjectIterator<T> iterator = new EmittedObjectIterator<>(xmlStream, createDriver(xmlStream, documentParser), documentParser, emittedClass);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Parses a document that consists of a long list of record elements in parallel. The bytes of the document are
+     * scanned for the elements named {@code recordElementName} that are not nested in another record element, and
+     * each record is parsed as a document of its own with a new document parser for the record mappings.
+     * The records are parsed by the fork-join pool of the returned parallel stream, i.e. the common pool unless
+     * the terminal operation is invoked from a task of another pool.
+     * <p>
+     * The content outside the records is not parsed. Since records are parsed separately, namespace declarations
+     * and entities declared outside a record are not available within it. The encoding of this parser must be
+     * ASCII compatible, such as UTF-8. Parse errors are thrown as {@link IllegalStateException} with the
+     * {@link XMLStreamException} as cause.
+     *
+     * @param xml               the remaining bytes of the buffer are the document. The buffer must not be modified
+     *                          while the stream is used.
+     * @param recordElementName name of the record elements as written in the document
+     * @param recordMappings    compiled mappings with the record element as top element
+     * @param resultClass       Class for the required result type of each record
+     * @param ordered           true to keep the results in document order, false to let the stream emit them in any order
+     * @param <T>               Required result type
+     * @return a parallel stream of the record results. Records without a result are left out.
+     */
+    public <T> Stream<T> parallelStreamXml(ByteBuffer xml, String recordElementName, CompiledMappings recordMappings, Class<T> resultClass, boolean ordered) {
+        requireAsciiCompatibleEncoding();
+        Stream<T> results = StreamSupport.stream(new RecordSpliterator(xml, recordElementName), true)
+                .map(record -> parseRecord(record, recordMappings, resultClass))
+                .filter(Objects::nonNull);
+        return ordered ? results : results.unordered();
+    }
+
+    /**
+     * Parses a file that consists of a long list of record elements in parallel, see
+     * {@link #parallelStreamXml(ByteBuffer, String, CompiledMappings, Class, boolean)}. The file is memory mapped
+     * and must not be larger than 2 GB.
+     *
+     * @param xmlFile           file with the xml content to parse
+     * @param recordElementName name of the record elements as written in the document
+     * @param recordMappings    compiled mappings with the record element as top element
+     * @param resultClass       Class for the required result type of each record
+     * @param ordered           true to keep the results in document order, false to let the stream emit them in any order
+     * @param <T>               Required result type
+     * @return a parallel stream of the record results. Records without a result are left out.
+     * @throws IOException If the file can not be opened or mapped.
+     */
+    public <T> Stream<T> parallelStreamXml(Path xmlFile, String recordElementName, CompiledMappings recordMappings, Class<T> resultClass, boolean ordered) throws IOException {
+        try (FileChannel channel = FileChannel.open(xmlFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Files larger than 2 GB can not be parsed in parallel: " + xmlFile);
+            }
+            ByteBuffer xml = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parallelStreamXml(xml, recordElementName, recordMappings, resultClass, ordered);
+        }
+    }
+
+    private <T> T parseRecord(ByteBuffer record, CompiledMappings recordMappings, Class<T> resultClass) {
+        try {
+            return parseXmlUnsafe(new ByteBufferInputStream(record), recordMappings, resultClass);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to parse the XML record.", e);
+        }
+    }
+
+    void requireAsciiCompatibleEncoding() {
+        String markup = "<?!/>\"'=";
+        if (!Arrays.equals(markup.getBytes(Charset.forName(encoding)), markup.getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalStateException("The encoding " + encoding + " is not supported when scanning XML bytes.");
+        }
+    }
+
+    private ParseDriver createDriver(InputStream xmlStream, DocumentParser documentParser) throws XMLStreamException {
+        XMLInputFactory inputFactory = getXmlInputFactory();
+        DocumentInput documentInput = new DocumentInput(xmlStream);
+        documentInput.start(documentParser);
+        if (Engine.EVENT == engine) {
+            return new EventReaderDriver(inputFactory.createXMLEventReader(documentInput.getInput(), encoding), documentParser, skipUnmappedElements);
+        }
+        return new StreamReaderDriver(inputFactory.createXMLStreamReader(documentInput.getInput(), encoding), documentParser, skipUnmappedElements);
+    }
+
+    /**
+     * Runs the driver to the end of a single document, closes the stream if the document parser completed the
+     * document early, and takes the result from the object branch.
+     */
+    private <T> T parseDocument(InputStream xmlStream, ParseDriver driver, DocumentParser documentParser, Class<T> resultClass) throws XMLStreamException {
+        runDriver(driver, documentParser, resultClass);
+        if (documentParser.isComplete()) {
+            closeQuietly(xmlStream);
         }
         T resObj = documentParser.getResult(resultClass);
         if (log.isWarnEnabled() && null == resObj) {
-            log.warn("No object of requested class was available on the object branch in the document parser.");
+            log.warn("No object of requested class {} was available on the object branch in the document parser.", resultClass.getName());
         }
         return resObj;
     }
 
+    /**
+     * Steps the driver until the document is read or the document parser is complete, then closes the reader and
+     * ends the document for the listener, also when parsing fails. The input stream is left open.
+     */
+    private static void runDriver(ParseDriver driver, DocumentParser documentParser, Class<?> resultClass) throws XMLStreamException {
+        try {
+            while (driver.step()) {
+                // Each step dispatches one token to the document parser
+            }
+        } finally {
+            driver.close();
+            documentParser.endDocument(resultClass);
+        }
+    }
+
+    private static void closeQuietly(InputStream xmlStream) {
+        try {
+            xmlStream.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the XML stream after parsing was completed.", e);
+        }
+    }
+
+    /**
+     * Get the input factory shared by all parse invocations on this instance. It is built with
+     * {@link #buildXmlInputFactory()} on first use.
+     *
+     * @return the configured input factory
+     */
+    protected XMLInputFactory getXmlInputFactory() {
+        XMLInputFactory factory = inputFactory;
+        if (null == factory) {
+            synchronized (this) {
+                factory = inputFactory;
+                if (null == factory) {
+                    factory = buildXmlInputFactory();
+                    inputFactory = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Creates and configures a new input factory. Invoked once per XmlParser instance.
+     *
+     * @return a new input factory configured with the builder properties
+     */
     protected XMLInputFactory buildXmlInputFactory() {
         XMLInputFactory inputFactory = XMLInputFactory.newInstance();
         if (xmlInputFactoryProperties != null && xmlInputFactoryProperties.size() > 0) {
@@ -92,9 +613,106 @@ public class XmlParser {
         return inputFactory;
     }
 
-    private static class XmlParserBuilder {
+    /**
+     * The input of one document: the listener created for the document, and the stream wrapped to count the bytes
+     * read when there is a listener.
+     */
+    private final class DocumentInput {
+        private final ParseListener listener;
+        private final CountingInputStream countingInput;
+        private final InputStream input;
+
+        private DocumentInput(InputStream xmlStream) {
+            this.listener = null == parseListenerFactory ? null : parseListenerFactory.get();
+            this.countingInput = null == listener ? null : new CountingInputStream(xmlStream);
+            this.input = null == countingInput ? xmlStream : countingInput;
+        }
+
+        /**
+         * @return the stream to create the reader for
+         */
+        InputStream getInput() {
+            return input;
+        }
+
+        /**
+         * Configure the document parser and start the document, before the first token is dispatched to it.
+         */
+        void start(DocumentParser documentParser) {
+            documentParser.setDiagnostics(diagnostics);
+            documentParser.startDocument(listener, countingInput);
+        }
+    }
+
+    /**
+     * Steps the parse driver until the document parser has emitted an object of the requested class.
+     */
+    private static final class EmittedObjectIterator<T> implements Iterator<T> {
+        private final InputStream xmlStream;
+        private final ParseDriver driver;
+        private final DocumentParser documentParser;
+        private final Class<T> emittedClass;
+        private final Queue<T> emitted = new ArrayDeque<>();
+        private boolean open = true;
+
+        private EmittedObjectIterator(InputStream xmlStream, ParseDriver driver, DocumentParser documentParser, Class<T> emittedClass) {
+            this.xmlStream = xmlStream;
+            this.driver = driver;
+            this.documentParser = documentParser;
+            this.emittedClass = emittedClass;
+            documentParser.setEmittedObjectConsumer(object -> {
+                if (emittedClass.isInstance(object)) {
+                    emitted.add(emittedClass.cast(object));
+                }
+            });
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (open && emitted.isEmpty()) {
+                    if (!driver.step()) {
+                        close();
+                    }
+                }
+            } catch (XMLStreamException e) {
+                close();
+                throw new IllegalStateException("Failed to parse the XML stream.", e);
+            }
+            return !emitted.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return emitted.poll();
+        }
+
+        private void close() {
+            if (open) {
+                open = false;
+                try {
+                    driver.close();
+                } catch (XMLStreamException e) {
+                    log.warn("Failed to close the XML reader.", e);
+                }
+                documentParser.endDocument(emittedClass);
+                if (documentParser.isComplete()) {
+                    closeQuietly(xmlStream);
+                }
+            }
+        }
+    }
+
+    public static class XmlParserBuilder {
         private Map<String, Object> xmlInputFactoryProperties = new HashMap<>();
         private String encoding = UTF_8;
+        private Engine engine = Engine.CURSOR;
+        private boolean skipUnmappedElements = false;
+        private boolean diagnostics = false;
+        private Supplier<? extends ParseListener> parseListenerFactory;
 
         private XmlParserBuilder() {
         }
@@ -109,8 +727,64 @@ public class XmlParser {
             return this;
         }
 
+        /**
+         * Select the StAX API used to read the XML stream. Defaults to {@link Engine#CURSOR}.
+         *
+         * @param engine the engine to use
+         * @return this builder
+         */
+        public XmlParserBuilder engine(Engine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * When enabled, the whole subtree of an element that has no parser settings is consumed at reader
+         * level, without dispatching its sub elements and text to the document parser. The number of skipped
+         * elements is available from {@link DocumentParser#getSkippedElementCount()}.
+         * <p>
+         * Note that this changes how unmapped elements are handled. By default an unmapped element is transparent:
+         * its sub elements are matched against the parser settings of the closest mapped ancestor and its text is
+         * mapped by that ancestor. With skipping enabled, nothing inside an unmapped element is mapped.
+         *
+         * @param skipUnmappedElements true to skip subtrees of unmapped elements. Defaults to false.
+         * @return this builder
+         */
+        public XmlParserBuilder skipUnmappedElements(boolean skipUnmappedElements) {
+            this.skipUnmappedElements = skipUnmappedElements;
+            return this;
+        }
+
+        /**
+         * In diagnostic mode the document parser logs each start element, end element and text at debug level, and
+         * logs a warning for each mapping that has no object of its class on the object branch. Without diagnostic
+         * mode nothing is logged per element; mappings without an object are only counted, see
+         * {@link DocumentParser#getMissingObjectCount()}.
+         *
+         * @param diagnostics true to log per element diagnostics. Defaults to false.
+         * @return this builder
+         */
+        public XmlParserBuilder diagnostics(boolean diagnostics) {
+            this.diagnostics = diagnostics;
+            return this;
+        }
+
+        /**
+         * Instrument the parses with a listener. The factory is invoked once per document and the listener it
+         * returns receives the callbacks of that document only, so listeners need not be thread safe. The factory
+         * may return null to leave a document uninstrumented, e.g. {@link JfrParseListener#create()} does so when
+         * no flight recording is running.
+         *
+         * @param parseListenerFactory creates a listener per document, or null for no instrumentation. Defaults to null.
+         * @return this builder
+         */
+        public XmlParserBuilder parseListener(Supplier<? extends ParseListener> parseListenerFactory) {
+            this.parseListenerFactory = parseListenerFactory;
+            return this;
+        }
+
         public XmlParser build() {
-            return new XmlParser(encoding, xmlInputFactoryProperties);
+            return new XmlParser(encoding, xmlInputFactoryProperties, engine, skipUnmappedElements, diagnostics, parseListenerFactory);
         }
 
     }
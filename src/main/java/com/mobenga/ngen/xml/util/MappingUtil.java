@@ -1,5 +1,6 @@
 package com.mobenga.ngen.xml.util;
 
+import java.math.BigDecimal;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -8,6 +9,11 @@ import java.util.function.Function;
  * Predefined mapping functions used when mapping data from xml to specific data types.
  */
 public class MappingUtil {
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+            1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
 
     private MappingUtil() {
     }
@@ -20,17 +26,57 @@ public class MappingUtil {
      * @return boolean value from string representation
      */
     public static boolean getBoolean(Map<String, String> values) {
-        return "TRUE".equalsIgnoreCase(getFirst(values)) || "Y".equalsIgnoreCase(getFirst(values)) || "YES".equalsIgnoreCase(getFirst(values));
+        return parseBoolean(getFirst(values));
     }
 
     /**
      * This method is provided to an {@link com.mobenga.ngen.xml.parser.AttributeMapping#AttributeMapping(Class, BiConsumer, Function, String...) AttributeMapping}
      * as a mapping method for method for a single xml attribute to an Integer Java object
      * @param values Values as a map
-     * @return integer value from string representation. Returns 0 if NumberFormatException.
+     * @return integer value from string representation. Returns 0 if the value is not a valid int.
      */
     public static int getInteger(Map<String, String> values) {
-        return toInt(getFirst(values));
+        return parseInt(getFirst(values));
+    }
+
+    /**
+     * This method is provided to an {@link com.mobenga.ngen.xml.parser.AttributeMapping#AttributeMapping(Class, BiConsumer, Function, String...) AttributeMapping}
+     * as a mapping method for a single xml attribute to a Long Java object.
+     * @param values Values as a map
+     * @return long value from string representation. Returns 0 if the value is not a valid long.
+     */
+    public static long getLong(Map<String, String> values) {
+        return parseLong(getFirst(values));
+    }
+
+    /**
+     * This method is provided to an {@link com.mobenga.ngen.xml.parser.AttributeMapping#AttributeMapping(Class, BiConsumer, Function, String...) AttributeMapping}
+     * as a mapping method for a single xml attribute to a Double Java object, e.g. decimal odds like "1.33".
+     * @param values Values as a map
+     * @return double value from string representation. Returns 0 if the value is not a valid number.
+     */
+    public static double getDouble(Map<String, String> values) {
+        return parseDouble(getFirst(values));
+    }
+
+    /**
+     * This method is provided to an {@link com.mobenga.ngen.xml.parser.AttributeMapping#AttributeMapping(Class, BiConsumer, Function, String...) AttributeMapping}
+     * as a mapping method for a single xml attribute to a BigDecimal Java object.
+     * @param values Values as a map
+     * @return BigDecimal value from string representation. Returns null if the value is not a valid decimal number.
+     */
+    public static BigDecimal getBigDecimal(Map<String, String> values) {
+        return parseBigDecimal(getFirst(values));
+    }
+
+    /**
+     * This method is provided to an {@link com.mobenga.ngen.xml.parser.AttributeMapping#AttributeMapping(Class, BiConsumer, Function, String...) AttributeMapping}
+     * as a mapping method for a single xml attribute with fractional odds like "1/3" to decimal odds.
+     * @param values Values as a map
+     * @return the decimal odds, see {@link #parseFractionalOdds(CharSequence)}.
+     */
+    public static double getFractionalOdds(Map<String, String> values) {
+        return parseFractionalOdds(getFirst(values));
     }
 
     /**
@@ -53,15 +99,211 @@ public class MappingUtil {
         return value;
     }
 
-    private static int toInt(String str) {
-        if(str == null) {
+    /**
+     * This method is provided to a {@link com.mobenga.ngen.xml.parser.CharSequenceElementTextMapping#CharSequenceElementTextMapping(Class, BiConsumer, Function) CharSequenceElementTextMapping}
+     * as a mapping method for a xml content to an Integer Java object. The digits are parsed directly from the sequence, no String is created.
+     * @param value Text Element Value
+     * @return integer value of an optionally signed decimal number. Returns 0 if the value is not a valid int.
+     */
+    public static int parseInt(CharSequence value) {
+        long result = parseLong(value);
+        return result == (int) result ? (int) result : 0;
+    }
+
+    /**
+     * This method is provided to a {@link com.mobenga.ngen.xml.parser.CharSequenceElementTextMapping#CharSequenceElementTextMapping(Class, BiConsumer, Function) CharSequenceElementTextMapping}
+     * as a mapping method for a xml content to a Long Java object. The digits are parsed directly from the sequence, no String is created.
+     * @param value Text Element Value
+     * @return long value of an optionally signed decimal number. Returns 0 if the value is not a valid long.
+     */
+    public static long parseLong(CharSequence value) {
+        int length = null == value ? 0 : value.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            index++;
+        }
+        if (index == length) {
             return 0;
-        } else {
-            try {
-                return Integer.parseInt(str);
-            } catch (NumberFormatException var3) {
+        }
+        // Accumulated negatively, since the range of negative longs is one larger
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        for (; index < length; index++) {
+            int digit = value.charAt(index) - '0';
+            if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
                 return 0;
             }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * This method is provided to a {@link com.mobenga.ngen.xml.parser.CharSequenceElementTextMapping#CharSequenceElementTextMapping(Class, BiConsumer, Function) CharSequenceElementTextMapping}
+     * as a mapping method for a xml content to a Double Java object. Plain decimal numbers with up to 15 significant digits,
+     * e.g. decimal odds, are parsed directly from the sequence; other values are parsed by {@link Double#parseDouble(String)}.
+     * @param value Text Element Value
+     * @return double value from the text. Returns 0 if the value is not a valid number.
+     */
+    public static double parseDouble(CharSequence value) {
+        int length = null == value ? 0 : value.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            index++;
+        }
+        int digitCharacters = 0;
+        int significantDigits = 0;
+        int fractionDigits = -1;
+        long mantissa = 0;
+        for (; index < length; index++) {
+            char c = value.charAt(index);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digitCharacters++;
+                if (mantissa > 0) {
+                    significantDigits++;
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (index == length && digitCharacters > 0 && significantDigits <= MAX_EXACT_DIGITS && fractionDigits < POWERS_OF_TEN.length) {
+            // The mantissa and the power of ten are exact doubles, so the division is correctly rounded
+            double result = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return negative ? -result : result;
+        }
+        try {
+            return null == value ? 0 : Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Mapping method for a xml value to a Boolean Java object. The value "YES", "Y" or "TRUE" (case ignored) is mapped to true.
+     * No String is created from the value.
+     * @param value attribute or text value
+     * @return boolean value from the text
+     */
+    public static boolean parseBoolean(CharSequence value) {
+        return equalsIgnoreCase("TRUE", value) || equalsIgnoreCase("Y", value) || equalsIgnoreCase("YES", value);
+    }
+
+    private static boolean equalsIgnoreCase(String upperCase, CharSequence value) {
+        if (null == value || value.length() != upperCase.length()) {
+            return false;
+        }
+        for (int i = 0; i < upperCase.length(); i++) {
+            if (Character.toUpperCase(value.charAt(i)) != upperCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mapping method for a xml value to a BigDecimal Java object. Plain decimal numbers with up to 18 digits, like
+     * prices and odds, are created from the unscaled value without parsing a String.
+     * @param value attribute or text value
+     * @return BigDecimal value from the text. Returns null if the value is not a valid decimal number.
+     */
+    public static BigDecimal parseBigDecimal(CharSequence value) {
+        int length = null == value ? 0 : value.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            index++;
+        }
+        int digits = 0;
+        int scale = -1;
+        long unscaled = 0;
+        for (; index < length; index++) {
+            char c = value.charAt(index);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (index == length && digits <= 18) {
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(0, scale));
+        }
+        // Only valid exponent notation and long numbers are left to the BigDecimal parser
+        if (index < length && (value.charAt(index) == 'e' || value.charAt(index) == 'E')) {
+            index++;
+            if (index < length && (value.charAt(index) == '-' || value.charAt(index) == '+')) {
+                index++;
+            }
+            int exponentDigits = 0;
+            while (index < length && value.charAt(index) >= '0' && value.charAt(index) <= '9') {
+                index++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0 || exponentDigits > 9) {
+                return null;
+            }
+        }
+        return index == length ? new BigDecimal(value.toString()) : null;
+    }
+
+    /**
+     * Mapping method for fractional odds like "1/3" or "11/10" to decimal odds, i.e. 1 + numerator / denominator.
+     * Decimal odds like "1.33" are also accepted and returned as they are.
+     * @param value attribute or text value
+     * @return the decimal odds. Returns 0 if the value is not valid odds.
+     */
+    public static double parseFractionalOdds(CharSequence value) {
+        int length = null == value ? 0 : value.length();
+        int slash = -1;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) == '/') {
+                slash = i;
+                break;
+            }
+        }
+        if (slash < 0) {
+            return parseDouble(value);
+        }
+        long numerator = parseDigits(value, 0, slash);
+        long denominator = parseDigits(value, slash + 1, length);
+        return numerator < 0 || denominator <= 0 ? 0 : 1 + (double) numerator / denominator;
+    }
+
+    /**
+     * @return the value of the unsigned digits in the range, or -1 if the range is empty, has other characters or
+     * more than 18 digits
+     */
+    private static long parseDigits(CharSequence value, int start, int end) {
+        if (start == end || end - start > 18) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
         }
+        return result;
     }
 }
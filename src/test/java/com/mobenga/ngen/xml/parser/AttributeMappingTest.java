@@ -0,0 +1,70 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AttributeMappingTest {
+
+    @Test
+    public void testKeysAreResolvedAtConstruction() {
+        AttributeMapping<Event, String> mapping = new AttributeMapping<>(Event.class, Event::setId, MappingUtil::getFirst, "id", "{urn:odds}id", "id");
+        assertThat(mapping.getKeys(), is(Arrays.asList("id", "{urn:odds}id")));
+        assertThat(mapping.getNames(), is(Arrays.asList(new QName("id"), new QName("urn:odds", "id"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalKey() {
+        new AttributeMapping<>(Event.class, Event::setId, MappingUtil::getFirst, "{urn:odds");
+    }
+
+    @Test
+    public void testManyMappingsAndAttributes() throws XMLStreamException {
+        StringBuilder xml = new StringBuilder("<event");
+        for (int i = 0; i < 40; i++) {
+            xml.append(" a").append(i).append("=\"v").append(i).append('"');
+        }
+        xml.append("/>");
+        List<String> mapped = new ArrayList<>();
+        Mappings mappings = () -> {
+            ElementParserSettings event = new ElementParserSettings("event");
+            event.setElementStartProcessor(objectBranch -> objectBranch.put(Event.class, new Event()));
+            List<AttributeMapping> attributeMappings = new ArrayList<>();
+            for (int i = 0; i < 40; i += 3) {
+                // overlapping keys, and one attribute that is not present
+                attributeMappings.add(new AttributeMapping<Event, String>(Event.class, (e, v) -> mapped.add(v), AttributeMappingTest::join,
+                        "a" + i, "a" + (i + 1), "a" + (i + 4), "missing"));
+            }
+            event.setAttributeMappings(attributeMappings.toArray(new AttributeMapping[attributeMappings.size()]));
+            return event;
+        };
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            mapped.clear();
+            XmlParser.builder().engine(engine).build()
+                    .parseXmlUnsafe(new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)), new DocumentParser(mappings), Event.class);
+            assertThat(mapped.size(), is(14));
+            assertThat(mapped.get(0), is("a0=v0,a1=v1,a4=v4,missing=null"));
+            assertThat(mapped.get(13), is("a39=v39,a40=null,a43=null,missing=null"));
+        }
+    }
+
+    private static String join(Map<String, String> values) {
+        StringBuilder joined = new StringBuilder();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            joined.append(joined.length() == 0 ? "" : ",").append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return joined.toString();
+    }
+}
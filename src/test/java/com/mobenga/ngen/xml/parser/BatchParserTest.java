@@ -0,0 +1,213 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BatchParserTest {
+
+    private static InputStream event(int id) {
+        return new ByteArrayInputStream(("<event id=\"" + id + "\" name=\"Event " + id + "\"><market id=\"1\" name=\"Mkt\"/></event>")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testAllDocumentsAreParsedWithinTheConcurrencyLimit() {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        List<BatchInput<Event>> inputs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int id = i;
+            inputs.add(BatchInput.of(() -> {
+                maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                LockSupport.parkNanos(1_000_000);
+                return new ByteArrayInputStream(readAll(event(id))) {
+                    @Override
+                    public void close() throws IOException {
+                        if (pos >= 0) {
+                            open.decrementAndGet();
+                            pos = -1;
+                        }
+                    }
+                };
+            }, plan, Event.class).attach(id));
+        }
+        Set<String> ids = new HashSet<>();
+        try (BatchParser batchParser = new XmlParser().batchParser().maxConcurrency(8).build()) {
+            for (int batch = 0; batch < 2; batch++) {
+                Iterator<BatchResult<Event>> results = batchParser.parse(inputs);
+                while (results.hasNext()) {
+                    BatchResult<Event> result = results.next();
+                    assertTrue(String.valueOf(result.getFailure()), result.isSuccess());
+                    assertThat(result.getResult().getId(), is(String.valueOf(result.getInput().getAttachment())));
+                    assertThat(result.getResult().getMarkets().size(), is(1));
+                    ids.add(result.getResult().getId());
+                }
+            }
+        }
+        assertThat(ids.size(), is(200));
+        assertTrue("At most 8 documents are open at a time, not " + maxOpen.get(), maxOpen.get() <= 8);
+    }
+
+    @Test
+    public void testFailuresAndTimeouts() {
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream blocked = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Closed");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        List<BatchInput<Event>> inputs = new ArrayList<>();
+        inputs.add(BatchInput.of(() -> blocked, plan, Event.class).attach("blocked"));
+        inputs.add(BatchInput.of(() -> new ByteArrayInputStream("<event id=1/>".getBytes(StandardCharsets.UTF_8)), plan, Event.class).attach("malformed"));
+        inputs.add(BatchInput.of(() -> {
+            throw new IOException("Connection refused");
+        }, plan, Event.class).attach("refused"));
+        inputs.add(BatchInput.of(() -> event(1), plan, Event.class).attach("parsed"));
+
+        List<String> order = new ArrayList<>();
+        try (BatchParser batchParser = new XmlParser().batchParser().timeout(Duration.ofMillis(200)).build()) {
+            Iterator<BatchResult<Event>> results = batchParser.parse(inputs);
+            while (results.hasNext()) {
+                BatchResult<Event> result = results.next();
+                order.add((String) result.getInput().getAttachment());
+                switch ((String) result.getInput().getAttachment()) {
+                    case "blocked":
+                        assertThat(result.isTimedOut(), is(true));
+                        break;
+                    case "malformed":
+                        assertThat(result.getFailure(), instanceOf(XMLStreamException.class));
+                        break;
+                    case "refused":
+                        assertThat(result.getFailure(), instanceOf(IOException.class));
+                        break;
+                    default:
+                        assertThat(result.getResult().getId(), is("1"));
+                }
+            }
+        }
+        assertThat(order.size(), is(4));
+        assertThat(order.get(3), is("blocked"));
+        assertThat(closed.getCount(), is(0L));
+    }
+
+    @Test(timeout = 10000)
+    public void testRejectedDocumentsFail() {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        List<BatchInput<Event>> inputs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int id = i;
+            inputs.add(BatchInput.of(() -> event(id), plan, Event.class));
+        }
+        ExecutorService singleThread = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        try (BatchParser batchParser = new XmlParser().batchParser().maxConcurrency(3).executor(singleThread).build()) {
+            int results = 0;
+            int rejected = 0;
+            Iterator<BatchResult<Event>> batch = batchParser.parse(inputs);
+            while (batch.hasNext()) {
+                BatchResult<Event> result = batch.next();
+                results++;
+                if (result.getFailure() instanceof RejectedExecutionException) {
+                    rejected++;
+                }
+            }
+            assertThat(results, is(6));
+            assertTrue("Documents beyond the single thread are rejected", rejected > 0);
+        } finally {
+            singleThread.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testNextAfterClose() {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        List<BatchInput<Event>> inputs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int id = i;
+            inputs.add(BatchInput.of(() -> event(id), plan, Event.class));
+        }
+        BatchParser batchParser = new XmlParser().batchParser().maxConcurrency(1).build();
+        Iterator<BatchResult<Event>> batch = batchParser.parse(inputs);
+        assertThat(batch.next().isSuccess(), is(true));
+        batchParser.close();
+        int results = 1;
+        int rejected = 0;
+        while (batch.hasNext()) {
+            BatchResult<Event> result = batch.next();
+            results++;
+            if (result.getFailure() instanceof RejectedExecutionException) {
+                rejected++;
+            }
+        }
+        assertThat(results, is(4));
+        // The second document was started when the first was taken, before the batch parser was closed
+        assertThat(rejected, is(2));
+    }
+
+    @Test(timeout = 10000)
+    public void testErrorInMapping() {
+        ElementParserSettings event = new ElementParserSettings("event");
+        event.setElementStartProcessor(objectBranch -> {
+            throw new AssertionError("Failing mapping");
+        });
+        List<BatchInput<Event>> inputs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int id = i;
+            inputs.add(BatchInput.of(() -> event(id), CompiledMappings.compile(() -> event), Event.class));
+        }
+        try (BatchParser batchParser = new XmlParser().batchParser().maxConcurrency(2).build()) {
+            int results = 0;
+            Iterator<BatchResult<Event>> batch = batchParser.parse(inputs);
+            while (batch.hasNext()) {
+                assertThat(batch.next().getFailure(), instanceOf(AssertionError.class));
+                results++;
+            }
+            assertThat(results, is(3));
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] bytes = new byte[in.available()];
+        int read = in.read(bytes);
+        assertThat(read, is(bytes.length));
+        return bytes;
+    }
+}
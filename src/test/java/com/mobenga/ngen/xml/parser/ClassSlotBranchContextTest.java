@@ -0,0 +1,99 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample2;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample3;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.parser.example.model.Outcome;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ClassSlotBranchContextTest {
+    private static final CompiledMappings PLAN = CompiledMappings.compile(new EventMapperExample3());
+
+    @Test
+    public void testMappedClassesHaveSlots() {
+        ClassSlots classSlots = PLAN.getClassSlots();
+        assertThat(classSlots.size(), is(3));
+        assertThat(classSlots.getType(classSlots.slotOf(Outcome.class)), is((Object) Outcome.class));
+        assertThat(classSlots.slotOf(String.class), is(-1));
+    }
+
+    @Test
+    public void testInsertAndPop() {
+        BranchContext branch = new ClassSlotBranchContext(PLAN);
+        Event event = new Event();
+        branch.put(Event.class, event);
+        branch.put(String.class, "TestStr");
+        assertSame(event, branch.getInstance(Event.class));
+        assertEquals("TestStr", branch.getInstance(String.class));
+        assertNull(branch.getInstance(Market.class));
+        assertNull(branch.getInstance(Integer.class));
+        assertEquals("TestStr", branch.getInstance(o -> o instanceof CharSequence));
+
+        assertEquals("TestStr", branch.pop(String.class));
+        assertNull(branch.getInstance(String.class));
+        assertSame(event, branch.pop(o -> true));
+        assertNull(branch.pop(o -> true));
+        assertNull(branch.pop(Event.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicate() {
+        BranchContext branch = new ClassSlotBranchContext(PLAN);
+        branch.put(String.class, "TestStr");
+        branch.put(String.class, "TestStr 2");
+    }
+
+    @Test
+    public void testParse() throws XMLStreamException {
+        String xml = "<event id=\"1\" name=\"Foo\"><market id=\"2\" name=\"Mkt\">" +
+                "<selection id=\"3\" name=\"Sel\"><price odds_frac=\"1/3\" odds_dec=\"1.33\"/></selection></market></event>";
+        Event event = new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()),
+                new DocumentParser(PLAN, new ClassSlotBranchContext(PLAN)), Event.class);
+
+        assertThat(event.getId(), is("1"));
+        assertThat(event.getMarkets().get(0).getName(), is("Mkt"));
+        Outcome outcome = event.getMarkets().get(0).getOutcomes().get(0);
+        assertThat(outcome.getName(), is("Sel"));
+        assertThat(outcome.getOddsDecimal(), is("1.33"));
+    }
+
+    @Test
+    public void testParseElementText() throws XMLStreamException {
+        String xml = "<event id=\"1\" name=\"Foo\">Main<market id=\"2\" name=\"Mkt\"/></event>";
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        Event event = new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()),
+                new DocumentParser(plan, new ClassSlotBranchContext(plan)), Event.class);
+
+        assertThat(event.getMainMarket(), is("Main"));
+        assertThat(event.getMarkets().get(0).getName(), is("Mkt"));
+    }
+
+    @Test
+    public void testParseWithClassesOnlyUsedByProcessors() throws XMLStreamException {
+        String xml = "<sport name=\"Football\"><event id=\"1\" name=\"Foo\"><market id=\"2\" name=\"Mkt\"/></event></sport>";
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample2());
+        Event event = new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()),
+                new DocumentParser(plan, new ClassSlotBranchContext(plan)), Event.class);
+
+        assertThat(event.getSportName(), is("Football"));
+        assertThat(event.getMarkets().get(0).getId(), is("2"));
+    }
+
+    @Test
+    public void testParseWithBranchOfOtherPlan() throws XMLStreamException {
+        String xml = "<event id=\"1\" name=\"Foo\"><market id=\"2\" name=\"Mkt\"/></event>";
+        Event event = new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()),
+                new DocumentParser(new EventMapperExample1(), new ClassSlotBranchContext(PLAN)), Event.class);
+
+        assertThat(event.getName(), is("Foo"));
+        assertThat(event.getMarkets().get(0).getName(), is("Mkt"));
+    }
+}
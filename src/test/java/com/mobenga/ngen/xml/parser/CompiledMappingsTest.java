@@ -0,0 +1,92 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample3;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+
+public class CompiledMappingsTest {
+
+    private static String eventXml(int id) {
+        return "<event id=\"" + id + "\" name=\"Event " + id + "\">\n" +
+                " <market id=\"1\" name=\"Mkt " + id + "\">\n" +
+                "  <selection id=\"1\" name=\"Sel " + id + "\">\n" +
+                "   <price odds_frac=\"1/3\" odds_dec=\"1.33\"/>\n" +
+                "  </selection>\n" +
+                " </market>\n" +
+                "</event>";
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompileWithoutSettings() {
+        CompiledMappings.compile(() -> null);
+    }
+
+    @Test
+    public void testSharedPlanConcurrently() throws Exception {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample3());
+        XmlParser xmlParser = new XmlParser();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Event>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String xml = eventXml(i);
+                Callable<Event> parse = () -> xmlParser.parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()), plan, Event.class);
+                futures.add(executor.submit(parse));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Event event = futures.get(i).get();
+                assertThat(event.getId(), is(String.valueOf(i)));
+                assertThat(event.getName(), is("Event " + i));
+                assertThat(event.getMarkets().get(0).getName(), is("Mkt " + i));
+                assertThat(event.getMarkets().get(0).getOutcomes().get(0).getName(), is("Sel " + i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDocumentParserReset() throws XMLStreamException {
+        DocumentParser documentParser = new DocumentParser(CompiledMappings.compile(new EventMapperExample1()));
+        XmlParser xmlParser = new XmlParser();
+        for (int i = 0; i < 3; i++) {
+            documentParser.reset(new ProtectedClassMap());
+            Event event = xmlParser.parseXmlUnsafe(new ByteArrayInputStream(eventXml(i).getBytes()), documentParser, Event.class);
+            assertThat(event.getId(), is(String.valueOf(i)));
+            assertThat(event.getMarkets().size(), is(1));
+        }
+    }
+
+    @Test
+    public void testRecursiveSettings() throws XMLStreamException {
+        ElementParserSettings market = new ElementParserSettings("market");
+        market.setElementStartProcessor(objectBranch -> {
+            if (null == objectBranch.getInstance(Market.class)) {
+                objectBranch.put(Market.class, new Market());
+            }
+        });
+        market.setAttributeMappings(new AttributeMapping<>(Market.class, (m, id) -> m.setId(m.getId() == null ? id : m.getId() + "/" + id), MappingUtil::getFirst, "id"));
+        market.setSubElementParsers(market);
+
+        String xml = "<market id=\"1\"><market id=\"2\"><market id=\"3\"/></market></market>";
+        Market result = new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()), CompiledMappings.compile(() -> market), Market.class);
+        assertNotNull(result);
+        assertThat(result.getId(), is("1/2/3"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.mobenga.ngen.xml.parser;
+
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class DiagnosticsTest {
+
+    public static class Selection {
+        private String name;
+        private String price;
+
+        void setName(String name) {
+            this.name = name;
+        }
+
+        void setPrice(String price) {
+            this.price = price;
+        }
+    }
+
+    /**
+     * Only the first selection element creates a selection object, the others are mapped to the same object.
+     */
+    private static final Mappings MAPPINGS = () -> {
+        ElementParserSettings selections = new ElementParserSettings("selections");
+        ElementParserSettings selection = new ElementParserSettings("selection");
+        selection.setElementStartProcessor((objectBranch, id) -> {
+            if ("1".equals(id)) {
+                objectBranch.put(Selection.class, new Selection());
+            }
+        }, "id");
+        selection.setAttributeMappings(new AttributeMapping<>(Selection.class, Selection::setName, values -> values.get("name"), "name"));
+        selection.setElementTextMappings(new ElementTextMapping<>(Selection.class, Selection::setPrice, String::valueOf));
+        selections.setSubElementParsers(selection);
+        return selections;
+    };
+
+    private static final String XML = "<selections>"
+            + "<selection id=\"1\" name=\"Home\">1.5</selection>"
+            + "<selection id=\"2\" name=\"Draw\">3.0</selection>"
+            + "<selection id=\"3\" name=\"Away\">4.5</selection>"
+            + "</selections>";
+
+    private static DocumentParser parse(XmlParser xmlParser) throws XMLStreamException {
+        DocumentParser documentParser = new DocumentParser(MAPPINGS);
+        Selection selection = xmlParser.parseXmlUnsafe(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), documentParser, Selection.class);
+        assertThat(selection.name, is("Away"));
+        assertThat(selection.price, is("4.5"));
+        return documentParser;
+    }
+
+    @Test
+    public void testMissingObjectsAreCounted() throws XMLStreamException {
+        XmlParser xmlParser = XmlParser.builder().build();
+        assertThat(parse(xmlParser).getMissingObjectCount(), is(0));
+
+        DocumentParser documentParser = new DocumentParser(() -> {
+            ElementParserSettings selections = new ElementParserSettings("selections");
+            ElementParserSettings selection = new ElementParserSettings("selection");
+            selection.setAttributeMappings(new AttributeMapping<>(Selection.class, Selection::setName, values -> values.get("name"), "name"));
+            selection.setElementTextMappings(new ElementTextMapping<>(Selection.class, Selection::setPrice, String::valueOf));
+            selections.setSubElementParsers(selection);
+            return selections;
+        });
+        xmlParser.parseXmlUnsafe(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), documentParser, Selection.class);
+        assertThat(documentParser.getMissingObjectCount(), is(6));
+
+        documentParser.reset(new ProtectedClassMap());
+        assertThat(documentParser.getMissingObjectCount(), is(0));
+    }
+
+    @Test
+    public void testDiagnosticModeOnBothEngines() throws XMLStreamException {
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            XmlParser xmlParser = XmlParser.builder().engine(engine).diagnostics(true).build();
+            assertThat(parse(xmlParser).getMissingObjectCount(), is(0));
+        }
+    }
+}
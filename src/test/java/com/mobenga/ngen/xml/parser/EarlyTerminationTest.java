@@ -0,0 +1,69 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class EarlyTerminationTest {
+    // Everything after the first market is malformed, parsing it would fail.
+    private String xmlString = "<event id=\"1\" name=\"Foo\">\n" +
+            " <market id=\"1\" name=\"Mkt Foo\"></market>\n" +
+            " <market id=\"2\" <<< broken";
+
+    @Test
+    public void testCompletionPredicate() throws XMLStreamException {
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            TrackingInputStream xmlStream = new TrackingInputStream(xmlString.getBytes());
+            DocumentParser documentParser = new DocumentParser(new EventMapperExample1());
+            documentParser.setCompletionPredicate(objectBranch -> null != objectBranch.getInstance(Event.class));
+
+            Event event = XmlParser.builder().engine(engine).build().parseXmlUnsafe(xmlStream, documentParser, Event.class);
+            assertNotNull(event);
+            assertThat(event.getId(), is("1"));
+            assertThat(event.getName(), is("Foo"));
+            assertThat(event.getMarkets().size(), is(0));
+            assertTrue(xmlStream.closed);
+        }
+    }
+
+    @Test
+    public void testTerminalElement() throws XMLStreamException {
+        ElementParserSettings market = new ElementParserSettings("market");
+        market.setElementStartProcessor(objectBranch -> objectBranch.put(Market.class, new Market()));
+        market.setAttributeMappings(new AttributeMapping<>(Market.class, Market::setName, MappingUtil::getFirst, "name"));
+        market.setTerminal(true);
+        ElementParserSettings event = new ElementParserSettings("event");
+        event.setSubElementParsers(market);
+
+        TrackingInputStream xmlStream = new TrackingInputStream(xmlString.getBytes());
+        Market result = new XmlParser().parseXmlUnsafe(xmlStream, new DocumentParser(() -> event), Market.class);
+        assertNotNull(result);
+        assertThat(result.getName(), is("Mkt Foo"));
+        assertTrue(xmlStream.closed);
+    }
+
+    private static class TrackingInputStream extends ByteArrayInputStream {
+        private boolean closed;
+
+        TrackingInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
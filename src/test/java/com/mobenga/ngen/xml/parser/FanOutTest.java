@@ -0,0 +1,101 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FanOutTest {
+    private static final String XML = "<event id=\"1\" name=\"Foo\">\n" +
+            " Match Result\n" +
+            " <market id=\"1\" name=\"Mkt Foo\"><selection name=\"Home\"/><selection name=\"Away\"/></market>\n" +
+            " <market id=\"2\" name=\"Mkt Bar\"><selection name=\"Over\"/><selection name=\"Under\"/></market>\n" +
+            "</event>";
+
+    public static class SelectionNames {
+        private final List<String> names = new ArrayList<>();
+
+        void add(String name) {
+            names.add(name);
+        }
+    }
+
+    private static final Mappings SELECTION_NAMES = () -> {
+        ElementParserSettings event = new ElementParserSettings("event");
+        event.setElementStartProcessor(objectBranch -> objectBranch.put(SelectionNames.class, new SelectionNames()));
+        ElementParserSettings market = new ElementParserSettings("market");
+        ElementParserSettings selection = new ElementParserSettings("selection");
+        selection.setAttributeMappings(new AttributeMapping<>(SelectionNames.class, SelectionNames::add, MappingUtil::getFirst, "name"));
+        market.setSubElementParsers(selection);
+        event.setSubElementParsers(market);
+        return event;
+    };
+
+    private static final Mappings FIRST_MARKET = () -> {
+        ElementParserSettings event = new ElementParserSettings("event");
+        ElementParserSettings market = new ElementParserSettings("market");
+        market.setElementStartProcessor(objectBranch -> objectBranch.put(Market.class, new Market()));
+        market.setAttributeMappings(new AttributeMapping<>(Market.class, Market::setName, MappingUtil::getFirst, "name"));
+        market.setTerminal(true);
+        event.setSubElementParsers(market);
+        return event;
+    };
+
+    private static InputStream xml() {
+        return new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOnePassForSeveralMappings() throws XMLStreamException {
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            for (boolean skip : new boolean[]{false, true}) {
+                XmlParser xmlParser = XmlParser.builder().engine(engine).skipUnmappedElements(skip).build();
+                DocumentParser eventParser = new DocumentParser(new EventMapperExample1());
+                DocumentParser namesParser = new DocumentParser(SELECTION_NAMES);
+                DocumentParser firstMarketParser = new DocumentParser(FIRST_MARKET);
+                List<Object> results = xmlParser.parseXmlUnsafe(xml(), Arrays.asList(eventParser, namesParser, firstMarketParser),
+                        Arrays.asList(Event.class, SelectionNames.class, Market.class));
+                assertThat(results.size(), is(3));
+
+                Event event = (Event) results.get(0);
+                Event expected = xmlParser.parseXmlUnsafe(xml(), new DocumentParser(new EventMapperExample1()), Event.class);
+                assertThat(event.getName(), is(expected.getName()));
+                assertThat(event.getMainMarket(), is(expected.getMainMarket()));
+                assertThat(event.getMarkets().size(), is(2));
+                assertThat(event.getMarkets().get(1).getName(), is("Mkt Bar"));
+                assertThat(eventParser.getSkippedElementCount(), is(skip ? 4 : 0));
+
+                assertThat(((SelectionNames) results.get(1)).names, is(Arrays.asList("Home", "Away", "Over", "Under")));
+                assertThat(namesParser.getSkippedElementCount(), is(0));
+
+                assertThat(((Market) results.get(2)).getName(), is("Mkt Foo"));
+                assertThat(firstMarketParser.isComplete(), is(true));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResultClassPerDocumentParser() throws XMLStreamException {
+        new XmlParser().parseXmlUnsafe(xml(), Arrays.asList(new DocumentParser(FIRST_MARKET), new DocumentParser(FIRST_MARKET)),
+                Collections.singletonList(Market.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDocumentParserOnlyOnce() throws XMLStreamException {
+        DocumentParser documentParser = new DocumentParser(FIRST_MARKET);
+        new XmlParser().parseXmlUnsafe(xml(), Arrays.asList(documentParser, documentParser), Arrays.asList(Market.class, Market.class));
+    }
+}
@@ -0,0 +1,186 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class FeedParserTest {
+    private static final CompiledMappings PLAN = CompiledMappings.compile(new EventMapperExample1());
+
+    /**
+     * Markup characters in comments, CDATA sections, attribute values and processing instructions, which must not
+     * end the document wherever a chunk boundary falls.
+     */
+    private static final String MARKUP_IN_CONTENT = "<event id=\"1\" name=\"a/>b\" note='/event>/>'>" +
+            "<!-- <event> </event> - > --><?pi </event> ?>" +
+            "<market id=\"1\" name=\"&lt;/event&gt;\"><![CDATA[ ]] </event> ]]]]></market></event>" +
+            "<event id=\"2\"/>";
+
+    private static ByteBuffer bytes(String xml) {
+        return ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> ids(List<Event> events) {
+        return events.stream().map(Event::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEveryChunkBoundary() throws XMLStreamException {
+        for (String xml : new String[]{MultiDocumentTest.DOCUMENTS, MARKUP_IN_CONTENT}) {
+            byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+            List<String> expected = null;
+            for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+                XmlParser xmlParser = XmlParser.builder().engine(engine).build();
+                for (int split = 0; split <= bytes.length; split++) {
+                    List<Event> events = new ArrayList<>();
+                    XmlFeedParser<Event> feedParser = xmlParser.feedParser(PLAN, Event.class, events::add);
+                    feedParser.feed(ByteBuffer.wrap(bytes, 0, split));
+                    feedParser.feed(ByteBuffer.wrap(bytes, split, bytes.length - split));
+                    feedParser.endOfInput();
+                    if (null == expected) {
+                        expected = ids(events);
+                    }
+                    assertThat("Split at " + split, ids(events), is(expected));
+                }
+            }
+            assertThat(expected.size() >= 2, is(true));
+        }
+    }
+
+    @Test
+    public void testMarkupInContent() throws XMLStreamException {
+        List<Event> events = new ArrayList<>();
+        XmlFeedParser<Event> feedParser = new XmlParser().feedParser(PLAN, Event.class, events::add);
+        ByteBuffer chunk = ByteBuffer.allocate(1);
+        for (byte b : MARKUP_IN_CONTENT.getBytes(StandardCharsets.UTF_8)) {
+            chunk.clear();
+            chunk.put(b).flip();
+            feedParser.feed(chunk);
+        }
+        assertThat(ids(events), is(Arrays.asList("1", "2")));
+        assertThat(events.get(0).getName(), is("a/>b"));
+        assertThat(events.get(0).getMarkets().get(0).getName(), is("</event>"));
+    }
+
+    @Test
+    public void testResultsAreDeliveredWhenTheRootEnds() throws XMLStreamException {
+        List<Event> events = new ArrayList<>();
+        XmlFeedParser<Event> feedParser = new XmlParser().feedParser(PLAN, Event.class, events::add);
+        feedParser.feed(bytes("<event id=\"1\" name=\"First\"><market id=\"1\""));
+        assertThat(feedParser.isDocumentPending(), is(true));
+        assertThat(events.size(), is(0));
+        feedParser.feed(bytes("/></event><event id=\"2\""));
+        assertThat(ids(events), is(Arrays.asList("1")));
+        assertThat(feedParser.isDocumentPending(), is(true));
+        try {
+            feedParser.endOfInput();
+            fail("The input ended within a document");
+        } catch (XMLStreamException e) {
+            assertThat(feedParser.isDocumentPending(), is(false));
+        }
+    }
+
+    @Test
+    public void testUnbalancedDocumentIsDropped() throws XMLStreamException {
+        List<Event> events = new ArrayList<>();
+        XmlFeedParser<Event> feedParser = new XmlParser().feedParser(PLAN, Event.class, events::add);
+        ByteBuffer chunk = bytes("<event id=\"1\"><market></event><event id=\"2\"/></market><event id=\"3\"/>");
+        int failures = 0;
+        while (chunk.hasRemaining()) {
+            try {
+                feedParser.feed(chunk);
+            } catch (XMLStreamException e) {
+                failures++;
+                assertThat(feedParser.isDocumentPending(), is(false));
+            }
+        }
+        assertThat(failures, is(2));
+        assertThat(ids(events), is(Arrays.asList("2", "3")));
+        for (int i = 0; i < 1000; i++) {
+            feedParser.feed(bytes("<event id=\"4\"/>"));
+        }
+        assertThat(events.size(), is(1002));
+        assertThat(feedParser.isDocumentPending(), is(false));
+    }
+
+    @Test
+    public void testMalformedDocumentIsDropped() throws XMLStreamException {
+        List<Event> events = new ArrayList<>();
+        XmlFeedParser<Event> feedParser = new XmlParser().feedParser(PLAN, Event.class, events::add);
+        ByteBuffer chunk = bytes("<event id=\"1\" name=\"First\"><market id=1/></event><event id=\"2\" name=\"Second\"/>");
+        try {
+            feedParser.feed(chunk);
+            fail("The document is malformed");
+        } catch (XMLStreamException e) {
+            assertThat(feedParser.isDocumentPending(), is(false));
+        }
+        feedParser.feed(chunk);
+        assertThat(ids(events), is(Arrays.asList("2")));
+    }
+
+    @Test
+    public void testOversizedDocumentIsSkipped() throws XMLStreamException {
+        List<Event> events = new ArrayList<>();
+        XmlFeedParser<Event> feedParser = new XmlParser().feedParser(PLAN, ProtectedClassMap::new, Event.class, events::add, 4096);
+        char[] text = new char[8192];
+        Arrays.fill(text, 'x');
+        ByteBuffer chunk = bytes("<event id=\"1\"><market>" + new String(text) + "</market></event><event id=\"2\"/>");
+        try {
+            feedParser.feed(chunk);
+            fail("The document exceeds the maximum size");
+        } catch (IllegalStateException e) {
+            assertThat(feedParser.isDocumentPending(), is(true));
+        }
+        feedParser.feed(chunk);
+        feedParser.endOfInput();
+        assertThat(ids(events), is(Arrays.asList("2")));
+    }
+
+    @Test
+    public void testRecoveryAtEveryOversizedByte() throws XMLStreamException {
+        String oversized = "<event id=\"123\" name=\"x\"><market id=\"1\"/><!-- / --></event>";
+        String next = "<event id=\"next\"/>";
+        for (int maxDocumentBytes = next.length(); maxDocumentBytes < oversized.length(); maxDocumentBytes++) {
+            List<Event> events = new ArrayList<>();
+            XmlFeedParser<Event> feedParser = new XmlParser().feedParser(PLAN, ProtectedClassMap::new, Event.class, events::add, maxDocumentBytes);
+            ByteBuffer chunk = bytes(oversized + next);
+            try {
+                feedParser.feed(chunk);
+                fail("The document exceeds " + maxDocumentBytes + " bytes");
+            } catch (IllegalStateException e) {
+                feedParser.feed(chunk);
+            }
+            assertThat("Limit " + maxDocumentBytes, ids(events), is(Arrays.asList("next")));
+            assertThat(feedParser.isDocumentPending(), is(false));
+        }
+    }
+
+    @Test
+    public void testLimitSmallerThanTheInitialBuffer() throws XMLStreamException {
+        List<Event> events = new ArrayList<>();
+        XmlFeedParser<Event> feedParser = new XmlParser().feedParser(PLAN, ProtectedClassMap::new, Event.class, events::add, 20);
+        char[] name = new char[200];
+        Arrays.fill(name, 'x');
+        ByteBuffer chunk = bytes("<event id=\"1\" name=\"" + new String(name) + "\"/><event id=\"2\"/>");
+        try {
+            feedParser.feed(chunk);
+            fail("The document exceeds 20 bytes");
+        } catch (IllegalStateException e) {
+            feedParser.feed(chunk);
+        }
+        feedParser.endOfInput();
+        assertThat(ids(events), is(Arrays.asList("2")));
+    }
+}
@@ -0,0 +1,95 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class InputSourceTest {
+    private static final int MARKETS = 500;
+    private Path xmlFile;
+
+    @Before
+    public void createFile() throws IOException {
+        StringBuilder xml = new StringBuilder("<event id=\"1\" name=\"Foo\">\n");
+        for (int i = 0; i < MARKETS; i++) {
+            xml.append(" <market id=\"").append(i).append("\" name=\"Mkt ").append(i).append("\"/>\n");
+        }
+        xml.append("</event>");
+        xmlFile = Files.createTempFile("ngen-xml-parser", ".xml");
+        Files.write(xmlFile, xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(xmlFile);
+    }
+
+    @Test
+    public void testPath() throws XMLStreamException, IOException {
+        assertEvent(new XmlParser().parseXmlUnsafe(xmlFile, new DocumentParser(new EventMapperExample1()), Event.class));
+    }
+
+    @Test
+    public void testMappedWindows() throws XMLStreamException, IOException {
+        try (InputStream xmlStream = new MappedFileInputStream(xmlFile, 100)) {
+            assertEvent(new XmlParser().parseXmlUnsafe(xmlStream, new DocumentParser(new EventMapperExample1()), Event.class));
+        }
+    }
+
+    @Test
+    public void testByteBuffer() throws XMLStreamException, IOException {
+        ByteBuffer xml = ByteBuffer.allocateDirect((int) Files.size(xmlFile));
+        xml.put(Files.readAllBytes(xmlFile)).flip();
+        assertEvent(new XmlParser().parseXmlUnsafe(xml, new DocumentParser(new EventMapperExample1()), Event.class));
+        assertThat(xml.position(), is(0));
+    }
+
+    @Test
+    public void testChannel() throws XMLStreamException, IOException {
+        try (FileChannel channel = FileChannel.open(xmlFile, StandardOpenOption.READ)) {
+            assertEvent(new XmlParser().parseXmlUnsafe(channel, new DocumentParser(new EventMapperExample1()), Event.class));
+        }
+    }
+
+    @Test
+    public void testParallelPath() throws IOException {
+        Path eventsFile = Files.createTempFile("ngen-xml-parser", ".xml");
+        try {
+            StringBuilder xml = new StringBuilder("<events>");
+            for (int i = 0; i < MARKETS; i++) {
+                xml.append("<event id=\"").append(i).append("\"/>");
+            }
+            Files.write(eventsFile, xml.append("</events>").toString().getBytes(StandardCharsets.UTF_8));
+
+            String ids = new XmlParser().parallelStreamXml(eventsFile, "event", CompiledMappings.compile(new EventMapperExample1()), Event.class, true)
+                    .map(Event::getId)
+                    .collect(Collectors.joining(","));
+            assertThat(ids, is(IntStream.range(0, MARKETS).mapToObj(String::valueOf).collect(Collectors.joining(","))));
+        } finally {
+            Files.delete(eventsFile);
+        }
+    }
+
+    private void assertEvent(Event event) {
+        assertThat(event.getId(), is("1"));
+        assertThat(event.getMarkets().size(), is(MARKETS));
+        assertThat(event.getMarkets().get(MARKETS - 1).getName(), is("Mkt " + (MARKETS - 1)));
+    }
+}
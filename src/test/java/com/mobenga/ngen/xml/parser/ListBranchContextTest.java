@@ -2,6 +2,10 @@ package com.mobenga.ngen.xml.parser;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class ListBranchContextTest {
@@ -54,4 +58,73 @@ public class ListBranchContextTest {
         assertNull(pcm.pop(o -> true));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getInstance_bySuperClass() throws Exception {
+        BranchContext pcm = new ListBranchContext();
+        pcm.put(5);
+        pcm.put(6L);
+        pcm.put("test-string-1");
+        assertEquals(6L, (long) pcm.getInstance(Number.class));
+        assertEquals(5, (int) pcm.getInstance(Integer.class));
+        assertEquals("test-string-1", pcm.getInstance(CharSequence.class));
+        assertNull(pcm.getInstance(Double.class));
+    }
+
+    @Test
+    public void pop_belowTop() throws Exception {
+        BranchContext pcm = new ListBranchContext();
+        pcm.put("test-string-1");
+        pcm.put(5);
+        pcm.put("test-string-2");
+        pcm.put(6);
+        assertEquals("test-string-2", pcm.pop(String.class));
+        assertEquals(6, (int) pcm.getInstance(o -> true));
+        assertEquals(6, (int) pcm.pop(Integer.class));
+        assertEquals(5, (int) pcm.getInstance(o -> true));
+        assertEquals("test-string-1", pcm.getInstance(String.class));
+    }
+
+    @Test
+    public void sameAsListWithHoles() throws Exception {
+        Random random = new Random(42);
+        BranchContext pcm = new ListBranchContext();
+        List<Object> reference = new ArrayList<>();
+        Object[] candidates = {"a", "b", 1, 2, 3L, 4.0};
+        for (int i = 0; i < 10000; i++) {
+            Object candidate = candidates[random.nextInt(candidates.length)];
+            if (random.nextInt(3) > 0 || reference.isEmpty()) {
+                pcm.put(candidate);
+                reference.add(candidate);
+            } else {
+                Class<?> type = candidate instanceof Number ? Number.class : candidate.getClass();
+                Object expected = null;
+                for (int j = reference.size() - 1; j >= 0 && null == expected; j--) {
+                    if (type.isInstance(reference.get(j))) {
+                        expected = reference.remove(j);
+                    }
+                }
+                assertEquals(expected, pcm.pop(type));
+            }
+            assertEquals(reference.isEmpty() ? null : reference.get(reference.size() - 1), pcm.getInstance(o -> true));
+        }
+    }
+
+    @Test
+    public void put_null() throws Exception {
+        BranchContext pcm = new ListBranchContext();
+        pcm.put("test-string-1");
+        pcm.put(null);
+        assertNull(pcm.getInstance(o -> true));
+        assertEquals("test-string-1", pcm.getInstance(String.class));
+        assertEquals("test-string-1", pcm.getInstance(Object.class));
+        assertNull(pcm.pop(o -> null == o));
+        assertEquals("test-string-1", pcm.getInstance(o -> true));
+        for (int i = 0; i < 40; i++) {
+            pcm.put(null);
+            pcm.put(i);
+        }
+        assertEquals(39, (int) pcm.pop(Integer.class));
+        assertNull(pcm.pop(o -> true));
+        assertEquals(38, (int) pcm.getInstance(Integer.class));
+    }
+}
@@ -0,0 +1,89 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class MappingsRegistryTest {
+
+    private static Mappings market(String marketName) {
+        return () -> {
+            ElementParserSettings market = new ElementParserSettings("market");
+            market.setElementStartProcessor(objectBranch -> objectBranch.put(Market.class, new Market()));
+            market.setAttributeMappings(new AttributeMapping<>(Market.class, (m, name) -> m.setName(marketName + name), MappingUtil::getFirst, "name"));
+            return market;
+        };
+    }
+
+    private static final MappingsRegistry REGISTRY = MappingsRegistry.builder()
+            .register(new EventMapperExample1(), Event.class)
+            .register(market("any "), Market.class)
+            .register("urn:b", market("b "), Market.class)
+            .build();
+
+    private static InputStream xml(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDispatchOnRootElement() throws XMLStreamException {
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            XmlParser xmlParser = XmlParser.builder().engine(engine).build();
+            Object event = xmlParser.parseXmlUnsafe(xml("<?xml version=\"1.0\"?>\n<!-- feed -->\n<event id=\"1\" name=\"Foo\">"
+                    + "<market id=\"1\" name=\"Mkt Foo\"/></event>"), REGISTRY);
+            assertThat(event, instanceOf(Event.class));
+            assertThat(((Event) event).getName(), is("Foo"));
+            assertThat(((Event) event).getMarkets().get(0).getName(), is("Mkt Foo"));
+
+            Object market = xmlParser.parseXmlUnsafe(xml("<market name=\"Foo\"/>"), REGISTRY);
+            assertThat(((Market) market).getName(), is("any Foo"));
+            market = xmlParser.parseXmlUnsafe(xml("<m:market xmlns:m=\"urn:a\" name=\"Foo\"/>"), REGISTRY);
+            assertThat(((Market) market).getName(), is("any Foo"));
+            market = xmlParser.parseXmlUnsafe(xml("<m:market xmlns:m=\"urn:b\" name=\"Foo\"/>"), REGISTRY);
+            assertThat(((Market) market).getName(), is("b Foo"));
+        }
+    }
+
+    @Test
+    public void testUnknownRootElement() throws XMLStreamException {
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            try {
+                XmlParser.builder().engine(engine).build().parseXmlUnsafe(xml("<sport/>"), REGISTRY);
+                fail();
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("No mappings are registered for the root element sport"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRegistration() {
+        MappingsRegistry.builder()
+                .register("urn:b", market("a "), Market.class)
+                .register("urn:b", market("b "), Market.class);
+    }
+
+    @Test
+    public void testManyRegistrations() throws XMLStreamException {
+        MappingsRegistry.MappingsRegistryBuilder builder = MappingsRegistry.builder();
+        for (int i = 0; i < 500; i++) {
+            builder.register("urn:" + i, market(i + " "), Market.class);
+        }
+        MappingsRegistry registry = builder.build();
+        assertThat(registry.size(), is(500));
+        Object market = new XmlParser().parseXmlUnsafe(xml("<market xmlns=\"urn:321\" name=\"Foo\"/>"), registry);
+        assertThat(((Market) market).getName(), is("321 Foo"));
+    }
+}
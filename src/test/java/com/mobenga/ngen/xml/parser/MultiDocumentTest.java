@@ -0,0 +1,123 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class MultiDocumentTest {
+    static final String DOCUMENTS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<event id=\"1\" name=\"First\">\n" +
+            " <market id=\"1\" name=\"Mkt A\"/>\n" +
+            " <market id=\"2\" name=\"Mkt &gt; B\"><![CDATA[</event>]]></market>\n" +
+            "</event>\n" +
+            "\r\n" +
+            "<?xml version=\"1.0\"?><!-- second --><event id=\"2\" name=\"Second\" note='/>'></event>" +
+            "<event id=\"3\" name=\"Third\"/>\n\n";
+
+    private static InputStream xml(String xml, boolean byteByByte) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, byteByByte ? Math.min(1, len) : len);
+            }
+        };
+    }
+
+    @Test
+    public void testConsecutiveDocuments() throws XMLStreamException, IOException {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        List<Function<CompiledMappings, BranchContext>> branches = Arrays.asList(
+                p -> new ProtectedClassMap(), p -> new ListBranchContext(), ClassSlotBranchContext::new);
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            for (Function<CompiledMappings, BranchContext> branch : branches) {
+                for (boolean byteByByte : new boolean[]{false, true}) {
+                    List<Event> events = new ArrayList<>();
+                    long count = XmlParser.builder().engine(engine).build()
+                            .parseXmlDocuments(xml(DOCUMENTS, byteByByte), new DocumentParser(plan), () -> branch.apply(plan), Event.class, events::add);
+                    assertThat(count, is(3L));
+                    assertThat(events.size(), is(3));
+                    assertThat(events.get(0).getName(), is("First"));
+                    assertThat(events.get(0).getMarkets().size(), is(2));
+                    assertThat(events.get(0).getMarkets().get(1).getName(), is("Mkt > B"));
+                    assertThat(events.get(1).getName(), is("Second"));
+                    assertThat(events.get(1).getMarkets().size(), is(0));
+                    assertThat(events.get(2).getId(), is("3"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEarlyCompletionSkipsRestOfDocument() throws XMLStreamException, IOException {
+        ElementParserSettings market = new ElementParserSettings("market");
+        market.setElementStartProcessor(objectBranch -> objectBranch.put(Market.class, new Market()));
+        market.setAttributeMappings(new AttributeMapping<>(Market.class, Market::setName, MappingUtil::getFirst, "name"));
+        market.setTerminal(true);
+        ElementParserSettings event = new ElementParserSettings("event");
+        event.setSubElementParsers(market);
+
+        List<String> names = new ArrayList<>();
+        long count = new XmlParser().parseXmlDocuments(xml(DOCUMENTS, false), new DocumentParser(() -> event), ProtectedClassMap::new, Market.class,
+                m -> names.add(m.getName()));
+        assertThat(count, is(3L));
+        assertThat(names, is(Arrays.asList("Mkt A")));
+    }
+
+    @Test
+    public void testEachDocumentStartsWithAPreLoadedObjectBranch() throws XMLStreamException, IOException {
+        ElementParserSettings market = new ElementParserSettings("market");
+        market.setElementStartProcessor(objectBranch -> objectBranch.put(Market.class, new Market()));
+        market.setAttributeMappings(new AttributeMapping<>(Market.class, Market::setName, MappingUtil::getFirst, "name"));
+        market.setElementEndProcessor(objectBranch -> objectBranch.getInstance(Event.class).getMarkets().add(objectBranch.pop(Market.class)));
+        ElementParserSettings event = new ElementParserSettings("event");
+        event.setSubElementParsers(market);
+
+        List<Event> events = new ArrayList<>();
+        long count = new XmlParser().parseXmlDocuments(xml(DOCUMENTS, false), new DocumentParser(() -> event), () -> {
+            ProtectedClassMap objectBranch = new ProtectedClassMap();
+            Event preLoaded = new Event();
+            preLoaded.setName("Pre loaded");
+            objectBranch.put(Event.class, preLoaded);
+            return objectBranch;
+        }, Event.class, events::add);
+        assertThat(count, is(3L));
+        assertThat(events.size(), is(3));
+        assertThat(events.get(0).getName(), is("Pre loaded"));
+        assertThat(events.get(0).getMarkets().size(), is(2));
+        assertThat(events.get(2).getName(), is("Pre loaded"));
+        assertThat(events.get(2).getMarkets().size(), is(0));
+    }
+
+    @Test
+    public void testMalformedDocument() throws IOException {
+        List<Event> events = new ArrayList<>();
+        try {
+            new XmlParser().parseXmlDocuments(xml("<event id=\"1\"/><event id=\"2\"><market></event>", false),
+                    new DocumentParser(new EventMapperExample1()), ProtectedClassMap::new, Event.class, events::add);
+            fail();
+        } catch (XMLStreamException e) {
+            assertThat(events.size(), is(1));
+        }
+    }
+
+    @Test
+    public void testEmptyStream() throws XMLStreamException, IOException {
+        assertThat(new XmlParser().parseXmlDocuments(xml(" \n ", false), new DocumentParser(new EventMapperExample1()), ProtectedClassMap::new, Event.class, e -> fail()), is(0L));
+    }
+}
@@ -0,0 +1,67 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ParallelStreamTest {
+    private static final int EVENTS = 2000;
+
+    private static ByteBuffer events() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!DOCTYPE events>\n<events>\n");
+        xml.append(" <!-- <event id=\"comment\"> -->\n");
+        for (int i = 0; i < EVENTS; i++) {
+            xml.append(" <event id=\"").append(i).append("\" name=\"a > b / '").append(i).append("'\">")
+                    .append("<![CDATA[</event> <event>]]>")
+                    .append("<market id=\"1\" name='Mkt \"").append(i).append("\"'/>")
+                    .append("</event>\n");
+        }
+        xml.append(" <event id=\"empty\"/>\n");
+        xml.append("</events>");
+        return ByteBuffer.wrap(xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOrdered() {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        List<Event> events = new XmlParser().parallelStreamXml(events(), "event", plan, Event.class, true).collect(Collectors.toList());
+
+        assertThat(events.size(), is(EVENTS + 1));
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = events.get(i);
+            assertThat(event.getId(), is(String.valueOf(i)));
+            assertThat(event.getName(), is("a > b / '" + i + "'"));
+            assertThat(event.getMainMarket(), is("</event> <event>"));
+            assertThat(event.getMarkets().get(0).getName(), is("Mkt \"" + i + "\""));
+        }
+        assertThat(events.get(EVENTS).getId(), is("empty"));
+    }
+
+    @Test
+    public void testUnordered() {
+        CompiledMappings plan = CompiledMappings.compile(new EventMapperExample1());
+        Set<String> ids = new XmlParser().parallelStreamXml(events(), "event", plan, Event.class, false)
+                .map(Event::getId)
+                .collect(Collectors.toSet());
+
+        Set<String> expected = IntStream.range(0, EVENTS).mapToObj(String::valueOf).collect(Collectors.toCollection(HashSet::new));
+        expected.add("empty");
+        assertThat(ids, is(expected));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnsupportedEncoding() {
+        new XmlParser("UTF-16").parallelStreamXml(events(), "event", CompiledMappings.compile(new EventMapperExample1()), Event.class, true);
+    }
+}
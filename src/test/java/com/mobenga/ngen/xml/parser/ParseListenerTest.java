@@ -0,0 +1,213 @@
+package com.mobenga.ngen.xml.parser;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ParseListenerTest {
+
+    public static class Market {
+        private final List<String> selections = new ArrayList<>();
+        private String name;
+
+        void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final Mappings MAPPINGS = () -> {
+        ElementParserSettings market = new ElementParserSettings("market");
+        market.setElementStartProcessor(objectBranch -> objectBranch.put(Market.class, new Market()));
+        market.setAttributeMappings(new AttributeMapping<>(Market.class, Market::setName, values -> values.get("name"), "name"));
+        ElementParserSettings selection = new ElementParserSettings("selection");
+        selection.setElementTextMappings(new ElementTextMapping<>(Market.class, (m, name) -> m.selections.add(name), String::valueOf));
+        market.setSubElementParsers(selection);
+        return market;
+    };
+
+    private static final String XML = "<market name=\"Match Result\">"
+            + "<selection>Home</selection><selection>Draw</selection><selection>Away</selection>"
+            + "<comment><author>a</author><text>b</text></comment>"
+            + "</market>";
+
+    private static class CountingListener implements ParseListener {
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int documents;
+        private long bytesRead;
+        private Class<?> resultClass;
+
+        private void count(String key, int n) {
+            counts.merge(key, n, Integer::sum);
+        }
+
+        @Override
+        public void documentStarted() {
+            documents++;
+        }
+
+        @Override
+        public void elementStarted(String elementName) {
+            count("started " + elementName, 1);
+        }
+
+        @Override
+        public void startProcessed(String elementName, long nanos) {
+            count("startProcessed " + elementName, 1);
+        }
+
+        @Override
+        public void attributesMapped(String elementName, int mappings, long nanos) {
+            count("attributes " + elementName, mappings);
+        }
+
+        @Override
+        public void textMapped(String elementName, int mappings, long nanos) {
+            count("text " + elementName, mappings);
+        }
+
+        @Override
+        public void mappingApplied(String elementName, String mappingName, long nanos) {
+            count("mapping " + elementName + " " + mappingName, 1);
+        }
+
+        @Override
+        public void elementEnded(String elementName, long nanos) {
+            count("ended " + elementName, 1);
+        }
+
+        @Override
+        public void elementsSkipped(String elementName, int elements) {
+            count("skipped " + elementName, elements);
+        }
+
+        @Override
+        public void documentEnded(Class<?> resultClass, long bytesRead) {
+            this.resultClass = resultClass;
+            this.bytesRead = bytesRead;
+        }
+    }
+
+    private static Market parse(XmlParser xmlParser) throws XMLStreamException {
+        return xmlParser.parseXmlUnsafe(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), new DocumentParser(MAPPINGS), Market.class);
+    }
+
+    @Test
+    public void testListenerCallbacks() throws XMLStreamException {
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            for (boolean skip : new boolean[]{false, true}) {
+                CountingListener listener = new CountingListener();
+                Market market = parse(XmlParser.builder().engine(engine).skipUnmappedElements(skip).parseListener(() -> listener).build());
+                assertThat(market.name, is("Match Result"));
+                assertThat(market.selections.size(), is(3));
+
+                assertThat(listener.documents, is(1));
+                assertThat(listener.counts.get("started market"), is(1));
+                assertThat(listener.counts.get("startProcessed market"), is(1));
+                assertThat(listener.counts.get("attributes market"), is(1));
+                assertThat(listener.counts.get("ended market"), is(1));
+                assertThat(listener.counts.get("started selection"), is(3));
+                assertThat(listener.counts.get("text selection"), is(3));
+                assertThat(listener.counts.get("ended selection"), is(3));
+                assertThat(listener.counts.get("attributes selection"), is(nullValue()));
+                assertThat(listener.counts.get("mapping market name"), is(1));
+                assertThat(listener.counts.get("mapping selection text()"), is(3));
+                if (skip) {
+                    assertThat(listener.counts.get("skipped comment"), is(3));
+                    assertThat(listener.counts.get("skipped author"), is(nullValue()));
+                } else {
+                    assertThat(listener.counts.get("skipped comment"), is(1));
+                    assertThat(listener.counts.get("skipped author"), is(1));
+                }
+                assertThat(listener.bytesRead, is((long) XML.length()));
+                assertThat(listener.resultClass, is((Object) Market.class));
+            }
+        }
+    }
+
+    @Test
+    public void testFactoryMayReturnNull() throws XMLStreamException {
+        assertThat(parse(XmlParser.builder().parseListener(() -> null).build()).selections.size(), is(3));
+    }
+
+    @Test
+    public void testJfrElementStatistics() throws XMLStreamException, IOException {
+        XmlParser xmlParser = XmlParser.builder().parseListener(JfrParseListener::create).build();
+        Path file = Files.createTempFile("ngen-xml-parser", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("com.mobenga.ngen.xml.ElementStatistics");
+                recording.start();
+                parse(xmlParser);
+                recording.stop();
+                recording.dump(file);
+            }
+            Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.mobenga.ngen.xml.ElementStatistics"))
+                    .collect(Collectors.toMap(event -> event.getString("elementName"), event -> event));
+            assertThat(events.size(), is(5));
+            assertThat(events.get("selection").getInt("elements"), is(3));
+            assertThat(events.get("selection").getInt("textMappings"), is(3));
+            assertThat(events.get("market").getInt("attributeMappings"), is(1));
+            assertThat(events.get("comment").getInt("skippedElements"), is(1));
+            assertThat(events.get("market").getLong("documentBytes"), is((long) XML.length()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertThat(JfrParseListener.create(), is(nullValue()));
+    }
+
+    @Test
+    public void testJfrDocumentAndSlowCallbacks() throws XMLStreamException, IOException {
+        XmlParser xmlParser = XmlParser.builder().parseListener(JfrParseListener.factory(Duration.ZERO)).build();
+        Path file = Files.createTempFile("ngen-xml-parser", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("com.mobenga.ngen.xml.DocumentParse");
+                recording.enable("com.mobenga.ngen.xml.SlowCallback");
+                recording.start();
+                parse(xmlParser);
+                recording.stop();
+                recording.dump(file);
+            }
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> documents = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("com.mobenga.ngen.xml.DocumentParse"))
+                    .collect(Collectors.toList());
+            assertThat(documents.size(), is(1));
+            assertThat(documents.get(0).getLong("bytesRead"), is((long) XML.length()));
+            assertThat(documents.get(0).getInt("elements"), is(4));
+            assertThat(documents.get(0).getInt("skippedElements"), is(3));
+            assertThat(documents.get(0).getClass("resultClass").getName(), is(Market.class.getName()));
+
+            List<String> slowCallbacks = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("com.mobenga.ngen.xml.SlowCallback"))
+                    .map(event -> event.getString("elementPath") + " " + event.getString("callback"))
+                    .collect(Collectors.toList());
+            assertThat(slowCallbacks.contains("/market start processor"), is(true));
+            assertThat(slowCallbacks.contains("/market name"), is(true));
+            assertThat(slowCallbacks.contains("/market/selection text()"), is(true));
+            assertThat(slowCallbacks.contains("/market/selection end processor"), is(true));
+            assertThat(slowCallbacks.contains("/market end processor"), is(true));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PrimitiveAttributeMappingTest {
+
+    public static class Selection {
+        private int order = -1;
+        private long startTime;
+        private double decimalOdds;
+        private double fractionalOdds;
+        private boolean suspended;
+        private BigDecimal stake;
+        private int rank;
+        private long volume;
+        private double price;
+        private boolean live;
+
+        void setOrder(int order) {
+            this.order = order;
+        }
+
+        void setStartTime(long startTime) {
+            this.startTime = startTime;
+        }
+
+        void setDecimalOdds(double decimalOdds) {
+            this.decimalOdds = decimalOdds;
+        }
+
+        void setFractionalOdds(double fractionalOdds) {
+            this.fractionalOdds = fractionalOdds;
+        }
+
+        void setSuspended(boolean suspended) {
+            this.suspended = suspended;
+        }
+
+        void setStake(BigDecimal stake) {
+            this.stake = stake;
+        }
+
+        void setRank(int rank) {
+            this.rank = rank;
+        }
+
+        void setVolume(long volume) {
+            this.volume = volume;
+        }
+
+        void setPrice(double price) {
+            this.price = price;
+        }
+
+        void setLive(boolean live) {
+            this.live = live;
+        }
+    }
+
+    private static final Mappings SELECTION_MAPPINGS = () -> {
+        ElementParserSettings selection = new ElementParserSettings("selection");
+        selection.setElementStartProcessor(objectBranch -> objectBranch.put(Selection.class, new Selection()));
+        selection.setAttributeMappings(
+                new IntAttributeMapping<>(Selection.class, Selection::setOrder, "order"),
+                new LongAttributeMapping<>(Selection.class, Selection::setStartTime, "start"),
+                new DoubleAttributeMapping<>(Selection.class, Selection::setDecimalOdds, "odds_dec"),
+                new DoubleAttributeMapping<>(Selection.class, Selection::setFractionalOdds, MappingUtil::parseFractionalOdds, "odds_frac"),
+                new BooleanAttributeMapping<>(Selection.class, Selection::setSuspended, "suspended"),
+                new AttributeMapping<>(Selection.class, Selection::setStake, MappingUtil::getBigDecimal, "stake"));
+        ElementParserSettings rank = new ElementParserSettings("rank");
+        rank.setElementTextMappings(new IntElementTextMapping<>(Selection.class, Selection::setRank));
+        ElementParserSettings volume = new ElementParserSettings("volume");
+        volume.setElementTextMappings(new LongElementTextMapping<>(Selection.class, Selection::setVolume));
+        ElementParserSettings price = new ElementParserSettings("price");
+        price.setElementTextMappings(
+                new DoubleElementTextMapping<>(Selection.class, Selection::setPrice, MappingUtil::parseFractionalOdds));
+        ElementParserSettings live = new ElementParserSettings("live");
+        live.setElementTextMappings(new BooleanElementTextMapping<>(Selection.class, Selection::setLive));
+        selection.setSubElementParsers(rank, volume, price, live);
+        return selection;
+    };
+
+    private static Selection parse(String xml) throws XMLStreamException {
+        return new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+                new DocumentParser(SELECTION_MAPPINGS), Selection.class);
+    }
+
+    @Test
+    public void testPrimitiveMappings() throws XMLStreamException {
+        Selection selection = parse("<selection order=\"3\" start=\"1500000000000\" odds_dec=\"1.33\" odds_frac=\"1/3\" suspended=\"Y\" stake=\"10.50\"/>");
+        assertThat(selection.order, is(3));
+        assertThat(selection.startTime, is(1500000000000L));
+        assertThat(selection.decimalOdds, is(1.33));
+        assertThat(selection.fractionalOdds, is(1 + 1 / 3.0));
+        assertThat(selection.suspended, is(true));
+        assertThat(selection.stake, is(new BigDecimal("10.50")));
+    }
+
+    @Test
+    public void testPrimitiveTextMappings() throws XMLStreamException {
+        Selection selection = parse("<selection><rank> 12 </rank><volume>9000000000</volume>"
+                + "<price>11/10</price><live>yes</live></selection>");
+        assertThat(selection.rank, is(12));
+        assertThat(selection.volume, is(9000000000L));
+        assertThat(selection.price, is(2.1));
+        assertThat(selection.live, is(true));
+    }
+
+    @Test
+    public void testMissingAttributesAreNotSet() throws XMLStreamException {
+        Selection selection = parse("<selection odds_dec=\"x\"/>");
+        assertThat(selection.order, is(-1));
+        assertThat(selection.decimalOdds, is(0.0));
+        assertThat(selection.stake, is(nullValue()));
+    }
+
+    @Test
+    public void testPrimitiveElementTextMappingsMapBoxedValues() {
+        assertThat(new IntElementTextMapping<>(Selection.class, Selection::setRank).map("42"), is(42));
+        assertThat(new LongElementTextMapping<>(Selection.class, Selection::setVolume).map("9000000000"), is(9000000000L));
+        assertThat(new DoubleElementTextMapping<>(Selection.class, Selection::setPrice).map("1.5"), is(1.5));
+        assertThat(new BooleanElementTextMapping<>(Selection.class, Selection::setLive).map("true"), is(true));
+    }
+}
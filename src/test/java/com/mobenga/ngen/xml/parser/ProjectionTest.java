@@ -0,0 +1,87 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ProjectionTest {
+    private static final String XML = "<event id=\"1\" name=\"Foo\" a=\"x\" b=\"y\" c=\"z\">\n" +
+            " Main\n" +
+            " <market id=\"2\" name=\"Mkt\" a=\"x\" b=\"y\">\n  Not mapped text\n </market>\n" +
+            "</event>";
+
+    private static class CountingReader extends StreamReaderDelegate {
+        private int textReads;
+        private int attributeValueReads;
+
+        CountingReader(XMLStreamReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public String getText() {
+            textReads++;
+            return super.getText();
+        }
+
+        @Override
+        public char[] getTextCharacters() {
+            textReads++;
+            return super.getTextCharacters();
+        }
+
+        @Override
+        public String getAttributeValue(int index) {
+            attributeValueReads++;
+            return super.getAttributeValue(index);
+        }
+    }
+
+    @Test
+    public void testOnlyNeededTextAndAttributesAreRead() throws XMLStreamException {
+        CountingReader reader = new CountingReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML)));
+        DocumentParser documentParser = new DocumentParser(new EventMapperExample1());
+        ParseDriver driver = new StreamReaderDriver(reader, documentParser, false);
+        while (driver.step()) {
+            // parse all
+        }
+        Event event = documentParser.getResult(Event.class);
+
+        assertThat(event.getMainMarket(), is("Main"));
+        assertThat(event.getMarkets().get(0).getName(), is("Mkt"));
+        // Only the text runs directly in the event element, which has an element text mapping
+        assertThat(reader.textReads, is(2));
+        // id and name of event and market
+        assertThat(reader.attributeValueReads, is(4));
+    }
+
+    @Test
+    public void testNamespacedAttributes() throws XMLStreamException {
+        String xml = "<event xmlns:o=\"urn:odds\" id=\"1\" o:id=\"odds-1\" name=\"Foo\" o:name=\"Odds Foo\"/>";
+        Mappings mappings = () -> {
+            ElementParserSettings event = new ElementParserSettings("event");
+            event.setElementStartProcessor(objectBranch -> objectBranch.put(Event.class, new Event()));
+            event.setAttributeMappings(
+                    new AttributeMapping<>(Event.class, Event::setId, MappingUtil::getFirst, "{urn:odds}id"),
+                    new AttributeMapping<>(Event.class, Event::setName, MappingUtil::getFirst, "name"));
+            return event;
+        };
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            Event event = XmlParser.builder().engine(engine).build()
+                    .parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()), new DocumentParser(mappings), Event.class);
+            assertThat(event.getId(), is("odds-1"));
+            assertThat(event.getName(), is("Foo"));
+        }
+    }
+}
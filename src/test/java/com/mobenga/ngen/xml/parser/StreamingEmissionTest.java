@@ -0,0 +1,72 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StreamingEmissionTest {
+    private String xmlString = "<event id=\"1\" name=\"Foo\">\n" +
+            " <market id=\"1\" name=\"Mkt Foo\"/>\n" +
+            " <market id=\"2\" name=\"Mkt Bar\"/>\n" +
+            " <market id=\"3\" name=\"Mkt Baz\"/>\n" +
+            "</event>";
+
+    private static Mappings emittingMappings() {
+        ElementParserSettings market = new ElementParserSettings("market");
+        market.setElementStartProcessor(objectBranch -> objectBranch.put(Market.class, new Market()));
+        market.setAttributeMappings(
+                new AttributeMapping<>(Market.class, Market::setId, MappingUtil::getFirst, "id"),
+                new AttributeMapping<>(Market.class, Market::setName, MappingUtil::getFirst, "name"));
+        market.setElementEndEmitter(objectBranch -> objectBranch.pop(Market.class));
+
+        ElementParserSettings event = new ElementParserSettings("event");
+        event.setElementStartProcessor(objectBranch -> objectBranch.put(Event.class, new Event()));
+        event.setAttributeMappings(new AttributeMapping<>(Event.class, Event::setId, MappingUtil::getFirst, "id"));
+        event.setSubElementParsers(market);
+        event.setElementEndEmitter(objectBranch -> objectBranch.pop(Event.class));
+        return () -> event;
+    }
+
+    @Test
+    public void testConsumer() throws XMLStreamException {
+        List<Market> markets = new ArrayList<>();
+        List<Object> all = new ArrayList<>();
+        new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xmlString.getBytes()), new DocumentParser(emittingMappings()), Market.class, markets::add);
+        new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xmlString.getBytes()), new DocumentParser(emittingMappings()), Object.class, all::add);
+
+        assertThat(markets.stream().map(Market::getName).collect(Collectors.toList()).toString(), is("[Mkt Foo, Mkt Bar, Mkt Baz]"));
+        assertThat(all.size(), is(4));
+        Event event = (Event) all.get(3);
+        assertThat(event.getId(), is("1"));
+        assertThat(event.getMarkets().size(), is(0));
+    }
+
+    @Test
+    public void testStreamIsLazy() throws XMLStreamException {
+        String brokenTail = xmlString.replace(" <market id=\"3\"", " <market id=\"3\" <<<");
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            XmlParser xmlParser = XmlParser.builder().engine(engine).build();
+            try (Stream<Market> markets = xmlParser.streamXml(new ByteArrayInputStream(brokenTail.getBytes()), new DocumentParser(emittingMappings()), Market.class)) {
+                List<String> ids = markets.limit(2).map(Market::getId).collect(Collectors.toList());
+                assertThat(ids.toString(), is("[1, 2]"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStreamParseError() throws XMLStreamException {
+        String brokenTail = xmlString.replace(" <market id=\"3\"", " <market id=\"3\" <<<");
+        new XmlParser().streamXml(new ByteArrayInputStream(brokenTail.getBytes()), new DocumentParser(emittingMappings()), Market.class).count();
+    }
+}
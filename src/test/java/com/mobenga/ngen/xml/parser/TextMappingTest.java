@@ -0,0 +1,105 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.util.MappingUtil;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TextMappingTest {
+    private static final String XML = "<price>\n <decimal> 1.75 </decimal>\n <rank>\t12\n</rank>\n <comment>  Home win  </comment>\n</price>";
+
+    public static class Price {
+        private double decimal;
+        private int rank;
+        private String comment;
+    }
+
+    private static Mappings priceMappings() {
+        return () -> {
+            ElementParserSettings price = new ElementParserSettings("price");
+            price.setElementStartProcessor(objectBranch -> objectBranch.put(Price.class, new Price()));
+
+            ElementParserSettings decimal = new ElementParserSettings("decimal");
+            decimal.setElementTextMappings(new CharSequenceElementTextMapping<Price, Double>(Price.class, (p, v) -> p.decimal = v, MappingUtil::parseDouble));
+            ElementParserSettings rank = new ElementParserSettings("rank");
+            rank.setElementTextMappings(new CharSequenceElementTextMapping<Price, Integer>(Price.class, (p, v) -> p.rank = v, MappingUtil::parseInt));
+            ElementParserSettings comment = new ElementParserSettings("comment");
+            comment.setElementTextMappings(new ElementTextMapping<Price, String>(Price.class, (p, v) -> p.comment = v, MappingUtil::getElementText));
+
+            price.setSubElementParsers(decimal, rank, comment);
+            return price;
+        };
+    }
+
+    @Test
+    public void testCursorEngine() throws XMLStreamException {
+        assertPrice(XmlParser.builder().engine(XmlParser.Engine.CURSOR).build());
+    }
+
+    @Test
+    public void testEventEngine() throws XMLStreamException {
+        assertPrice(XmlParser.builder().engine(XmlParser.Engine.EVENT).build());
+    }
+
+    private static void assertPrice(XmlParser xmlParser) throws XMLStreamException {
+        Price price = xmlParser.parseXmlUnsafe(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), new DocumentParser(priceMappings()), Price.class);
+        assertThat(price.decimal, is(1.75));
+        assertThat(price.rank, is(12));
+        assertThat(price.comment, is("Home win"));
+    }
+
+    @Test
+    public void testTextChunksAreCoalesced() throws XMLStreamException {
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            List<String> comments = new ArrayList<>();
+            Mappings mappings = () -> {
+                ElementParserSettings price = new ElementParserSettings("price");
+                price.setElementStartProcessor(objectBranch -> objectBranch.put(Price.class, new Price()));
+                price.setElementTextMappings(new ElementTextMapping<Price, String>(Price.class, (p, v) -> comments.add(v), MappingUtil::getElementText));
+                return price;
+            };
+            String xml = "<price> Home &amp; away <![CDATA[<win>]]> &#x41;" + String.join("", Collections.nCopies(5000, "x")) + " </price>";
+            XmlParser xmlParser = XmlParser.builder().engine(engine).build();
+            xmlParser.parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), new DocumentParser(mappings), Price.class);
+
+            assertThat(comments.size(), is(1));
+            assertThat(comments.get(0), is("Home & away <win> A" + String.join("", Collections.nCopies(5000, "x"))));
+        }
+    }
+
+    @Test
+    public void testTextRunsAroundChildren() throws XMLStreamException {
+        List<String> texts = new ArrayList<>();
+        Mappings mappings = () -> {
+            ElementParserSettings price = new ElementParserSettings("price");
+            price.setElementStartProcessor(objectBranch -> objectBranch.put(Price.class, new Price()));
+            price.setElementTextMappings(new ElementTextMapping<Price, String>(Price.class, (p, v) -> texts.add(v), MappingUtil::getElementText));
+            price.setSubElementParsers(new ElementParserSettings("rank"));
+            return price;
+        };
+        String xml = "<price> before <rank>1</rank>\n <rank>2</rank> after </price>";
+        new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), new DocumentParser(mappings), Price.class);
+
+        assertThat(texts, is(Arrays.asList("before", "after")));
+    }
+
+    @Test
+    public void testTrimmedView() {
+        char[] chars = " \t abc \n".toCharArray();
+        TextView view = new TextView().trim(chars, 1, chars.length - 1);
+        assertThat(view.length(), is(3));
+        assertThat(view.charAt(1), is('b'));
+        assertThat(view.subSequence(1, 3).toString(), is("bc"));
+        assertThat(view.toString(), is("abc"));
+        assertThat(new TextView().trim(" \n ".toCharArray(), 0, 3).isEmpty(), is(true));
+    }
+}
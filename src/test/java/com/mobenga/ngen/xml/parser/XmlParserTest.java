@@ -0,0 +1,108 @@
+package com.mobenga.ngen.xml.parser;
+
+import com.mobenga.ngen.xml.parser.example.EventMapperExample1;
+import com.mobenga.ngen.xml.parser.example.EventMapperExample3;
+import com.mobenga.ngen.xml.parser.example.model.Event;
+import com.mobenga.ngen.xml.parser.example.model.Market;
+import com.mobenga.ngen.xml.parser.example.model.Outcome;
+import org.junit.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+
+public class XmlParserTest {
+    private String xmlString = "<event id=\"1\" name =\"Foo\">\n" +
+            " <market id=\"1\" name=\"Mkt Foo\">\n" +
+            "  <selection id=\"1\" name=\"Sel Foo\">\n" +
+            "   <price odds_frac=\"1/3\" odds_dec=\"1.33\"/>\n" +
+            "  </selection>\n" +
+            " </market>" +
+            "</event>";
+
+    @Test
+    public void testCursorEngine() throws XMLStreamException {
+        assertEvent(parse(XmlParser.builder().engine(XmlParser.Engine.CURSOR).build()));
+    }
+
+    @Test
+    public void testEventEngine() throws XMLStreamException {
+        assertEvent(parse(XmlParser.builder().engine(XmlParser.Engine.EVENT).build()));
+    }
+
+    @Test
+    public void testInputFactoryIsBuiltOnce() throws XMLStreamException {
+        AtomicInteger builtFactories = new AtomicInteger();
+        XmlParser xmlParser = new XmlParser() {
+            @Override
+            protected XMLInputFactory buildXmlInputFactory() {
+                builtFactories.incrementAndGet();
+                return super.buildXmlInputFactory();
+            }
+        };
+        assertEvent(parse(xmlParser));
+        assertEvent(parse(xmlParser));
+        assertThat(builtFactories.get(), is(1));
+    }
+
+    @Test
+    public void testBuilderProperties() throws XMLStreamException {
+        XmlParser xmlParser = XmlParser.builder()
+                .encoding("UTF-8")
+                .addXmlInputFactoryProperty(XMLInputFactory.IS_COALESCING, true)
+                .build();
+        assertThat(xmlParser.getXmlInputFactory().getProperty(XMLInputFactory.IS_COALESCING), is(true));
+        assertEvent(parse(xmlParser));
+    }
+
+    @Test
+    public void testSkipUnmappedElements() throws XMLStreamException {
+        String xml = "<event id=\"1\" name=\"Foo\">" +
+                "<media><image url=\"a\"/><image url=\"b\"><market id=\"9\" name=\"Hidden\"/></image></media>" +
+                "<market id=\"1\" name=\"Mkt Foo\"/>" +
+                "</event>";
+        for (XmlParser.Engine engine : XmlParser.Engine.values()) {
+            DocumentParser documentParser = new DocumentParser(new EventMapperExample1());
+            XmlParser xmlParser = XmlParser.builder().engine(engine).skipUnmappedElements(true).build();
+            Event event = xmlParser.parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()), documentParser, Event.class);
+            assertThat(event.getMarkets().size(), is(1));
+            assertThat(event.getMarkets().get(0).getName(), is("Mkt Foo"));
+            assertThat(documentParser.getSkippedElementCount(), is(4));
+            assertThat(documentParser.getSkippedCharacterCount(), is((long) "<image url=\"a\"/><image url=\"b\"><market id=\"9\" name=\"Hidden\"/></image></media>".length()));
+        }
+    }
+
+    @Test
+    public void testUnmappedElementsAreTransparentByDefault() throws XMLStreamException {
+        String xml = "<event id=\"1\" name=\"Foo\"><group><market id=\"1\" name=\"Mkt Foo\"/></group></event>";
+        DocumentParser documentParser = new DocumentParser(new EventMapperExample1());
+        Event event = new XmlParser().parseXmlUnsafe(new ByteArrayInputStream(xml.getBytes()), documentParser, Event.class);
+        assertThat(event.getMarkets().size(), is(1));
+        assertThat(documentParser.getSkippedElementCount(), is(0));
+    }
+
+    private Event parse(XmlParser xmlParser) throws XMLStreamException {
+        InputStream xmlStream = new ByteArrayInputStream(xmlString.getBytes());
+        return xmlParser.parseXmlUnsafe(xmlStream, new DocumentParser(new EventMapperExample3()), Event.class);
+    }
+
+    private void assertEvent(Event event) {
+        assertNotNull(event);
+        assertThat(event.getId(), is("1"));
+        assertThat(event.getName(), is("Foo"));
+        assertThat(event.getMarkets().size(), is(1));
+        Market market = event.getMarkets().get(0);
+        assertThat(market.getName(), is("Mkt Foo"));
+        assertThat(market.getOutcomes().size(), is(1));
+        Outcome outcome = market.getOutcomes().get(0);
+        assertThat(outcome.getName(), is("Sel Foo"));
+        assertThat(outcome.getOdds(), is("1/3"));
+        assertThat(outcome.getOddsDecimal(), is("1.33"));
+    }
+}
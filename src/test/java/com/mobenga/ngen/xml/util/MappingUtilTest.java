@@ -0,0 +1,92 @@
+package com.mobenga.ngen.xml.util;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class MappingUtilTest {
+
+    @Test
+    public void testParseInt() {
+        assertThat(MappingUtil.parseInt("0"), is(0));
+        assertThat(MappingUtil.parseInt("42"), is(42));
+        assertThat(MappingUtil.parseInt("+42"), is(42));
+        assertThat(MappingUtil.parseInt("-2147483648"), is(Integer.MIN_VALUE));
+        assertThat(MappingUtil.parseInt("2147483647"), is(Integer.MAX_VALUE));
+        assertThat(MappingUtil.parseInt("2147483648"), is(0));
+        assertThat(MappingUtil.parseInt("4x"), is(0));
+        assertThat(MappingUtil.parseInt("-"), is(0));
+        assertThat(MappingUtil.parseInt(""), is(0));
+        assertThat(MappingUtil.parseInt(null), is(0));
+    }
+
+    @Test
+    public void testParseLong() {
+        assertThat(MappingUtil.parseLong(new StringBuilder("123456789012")), is(123456789012L));
+        assertThat(MappingUtil.parseLong("-9223372036854775808"), is(Long.MIN_VALUE));
+        assertThat(MappingUtil.parseLong("9223372036854775807"), is(Long.MAX_VALUE));
+        assertThat(MappingUtil.parseLong("9223372036854775808"), is(0L));
+        assertThat(MappingUtil.parseLong("-9223372036854775809"), is(0L));
+    }
+
+    @Test
+    public void testParseDouble() {
+        String[] values = {"1.75", "-0.05", "+3", "100", "1.", ".5", "0.1", "2.3333333333333335", "123456789.123456",
+                "0.0000000000000000000000001", "1e3", "-1.5E-3", "12345678901234567890", "-0"};
+        for (String value : values) {
+            assertThat(value, MappingUtil.parseDouble(value), is(Double.parseDouble(value)));
+        }
+        assertThat(MappingUtil.parseDouble("1.2.3"), is(0.0));
+        assertThat(MappingUtil.parseDouble("."), is(0.0));
+        assertThat(MappingUtil.parseDouble(""), is(0.0));
+        assertThat(MappingUtil.parseDouble(null), is(0.0));
+    }
+
+    @Test
+    public void testParseBoolean() {
+        assertThat(MappingUtil.parseBoolean("true"), is(true));
+        assertThat(MappingUtil.parseBoolean("Y"), is(true));
+        assertThat(MappingUtil.parseBoolean("yEs"), is(true));
+        assertThat(MappingUtil.parseBoolean("no"), is(false));
+        assertThat(MappingUtil.parseBoolean("yess"), is(false));
+        assertThat(MappingUtil.parseBoolean(null), is(false));
+        assertThat(MappingUtil.getBoolean(Collections.singletonMap("a", "TRUE")), is(true));
+    }
+
+    @Test
+    public void testParseBigDecimal() {
+        String[] values = {"10.50", "-0.05", "+3", "1.", ".5", "123456789012345678", "1234567890123456789012.5", "1.5E-3", "-2e+10"};
+        for (String value : values) {
+            assertThat(value, MappingUtil.parseBigDecimal(value), is(new BigDecimal(value)));
+        }
+        assertThat(MappingUtil.parseBigDecimal("1.2.3"), is(nullValue()));
+        assertThat(MappingUtil.parseBigDecimal("1e"), is(nullValue()));
+        assertThat(MappingUtil.parseBigDecimal("1e99999999999"), is(nullValue()));
+        assertThat(MappingUtil.parseBigDecimal("-"), is(nullValue()));
+        assertThat(MappingUtil.parseBigDecimal(null), is(nullValue()));
+    }
+
+    @Test
+    public void testParseFractionalOdds() {
+        assertThat(MappingUtil.parseFractionalOdds("1/3"), is(1 + 1 / 3.0));
+        assertThat(MappingUtil.parseFractionalOdds("11/10"), is(2.1));
+        assertThat(MappingUtil.parseFractionalOdds("1.33"), is(1.33));
+        assertThat(MappingUtil.parseFractionalOdds("1/0"), is(0.0));
+        assertThat(MappingUtil.parseFractionalOdds("1/"), is(0.0));
+        assertThat(MappingUtil.parseFractionalOdds("-1/3"), is(0.0));
+        assertThat(MappingUtil.getFractionalOdds(Collections.singletonMap("a", "7/5")), is(2.4));
+    }
+
+    @Test
+    public void testMapMappers() {
+        assertThat(MappingUtil.getInteger(Collections.singletonMap("a", "x")), is(0));
+        assertThat(MappingUtil.getLong(Collections.singletonMap("a", "-7")), is(-7L));
+        assertThat(MappingUtil.getDouble(Collections.singletonMap("a", "1.25")), is(1.25));
+        assertThat(MappingUtil.getBigDecimal(Collections.singletonMap("a", "1.25")), is(new BigDecimal("1.25")));
+    }
+}